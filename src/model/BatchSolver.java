@@ -0,0 +1,245 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.network.Network;
+import model.network.NetworkReader;
+import model.network.NetworkReaderException;
+import model.network.NetworkSolutionWriter;
+import model.simplex.SolveStatus;
+
+/**
+ * The BatchSolver class solves many network files in one JVM.
+ * <p>
+ * A file is handled by one of a few file threads, which reads the file,
+ * hands the solve to a pool with one thread per core and writes the solution.
+ * So reading and writing of some files overlap with the solves of others,
+ * while the number of concurrent solves stays bounded by the number of cores.
+ * There are {@link #FILES_PER_SOLVER_THREAD} file threads per solver thread,
+ * which bounds the number of networks held in memory at the same time.
+ */
+public class BatchSolver {
+
+	/**
+	 * Number of files read, solved or written at the same time per solver thread
+	 */
+	public static final int FILES_PER_SOLVER_THREAD = 2;
+
+	private final int numberOfSolverThreads;
+
+	public BatchSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public BatchSolver(int numberOfSolverThreads) {
+		this.numberOfSolverThreads = numberOfSolverThreads;
+	}
+
+	/**
+	 * Finds the input files: all files of a directory,
+	 * or the files matching a glob pattern like <code>files/*.min</code>.
+	 * @param input A directory or a glob pattern for the file names.
+	 * @return The input files sorted by name.
+	 * @throws IOException If the directory cannot be read.
+	 */
+	public static List<Path> findInputFiles(String input) throws IOException {
+		Path path = Paths.get(input);
+		Path directory;
+		PathMatcher matcher = null;
+		if (Files.isDirectory(path)) {
+			directory = path;
+		} else {
+			directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+			matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+		}
+		List<Path> files = new ArrayList<Path>();
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+		try {
+			for (Path file : stream) {
+				if (Files.isRegularFile(file) && (matcher == null || matcher.matches(file.getFileName()))) {
+					files.add(file);
+				}
+			}
+		} finally {
+			stream.close();
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Solves all input files and writes the solutions into the output directory.
+	 * The solution of a file <code>name</code> is written to <code>name.sol</code>,
+	 * files without an optimal flow get no solution and an error in their result.
+	 * @param inputFiles The input files.
+	 * @param outputDirectory The output directory, created if necessary.
+	 * @return The results in the order of the input files.
+	 * @throws IOException If the output directory cannot be created.
+	 */
+	public List<Result> solve(List<Path> inputFiles, String outputDirectory) throws IOException {
+		final File outputDir = new File(outputDirectory);
+		if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+			throw new IOException("Cannot create directory: " + outputDirectory);
+		}
+		final ExecutorService solverPool = Executors.newFixedThreadPool(numberOfSolverThreads);
+		ExecutorService fileThreads = Executors.newFixedThreadPool(FILES_PER_SOLVER_THREAD*numberOfSolverThreads);
+		List<Future<Result>> futures = new ArrayList<Future<Result>>();
+		try {
+			for (final Path inputFile : inputFiles) {
+				futures.add(fileThreads.submit(new Callable<Result>() {
+					@Override
+					public Result call() throws InterruptedException {
+						return solveFile(inputFile, outputDir, solverPool);
+					}
+				}));
+			}
+			List<Result> results = new ArrayList<Result>();
+			for (Future<Result> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while solving", e);
+				} catch (ExecutionException e) {
+					throw new IOException("Unexpected error while solving", e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			fileThreads.shutdown();
+			solverPool.shutdown();
+		}
+	}
+
+	private Result solveFile(Path inputFile, File outputDir, ExecutorService solverPool)
+			throws InterruptedException {
+		Result result = new Result(inputFile.toString());
+		long start = System.nanoTime();
+		try {
+			final Network network = NetworkReader.read(inputFile.toString());
+			long read = System.nanoTime();
+			result.readTime = read - start;
+			SolveStatus status = solverPool.submit(new Callable<SolveStatus>() {
+				@Override
+				public SolveStatus call() {
+					return new NetworkSimplex().solve(network);
+				}
+			}).get();
+			long solved = System.nanoTime();
+			result.solveTime = solved - read;
+			result.status = status;
+			if (status != SolveStatus.OPTIMAL) {
+				result.error = "No optimal flow: " + status;
+				return result;
+			}
+			String outputFile = new File(outputDir, inputFile.getFileName() + ".sol").getPath();
+			result.cost = new NetworkSolutionWriter().writeSolution(network, outputFile);
+			result.writeTime = System.nanoTime() - solved;
+		} catch (NetworkReaderException e) {
+			result.error = e.getMessage();
+		} catch (IOException e) {
+			result.error = "Error while writing: " + e.getMessage();
+		} catch (ExecutionException e) {
+			result.error = "Error while solving: " + e.getCause();
+		}
+		return result;
+	}
+
+	/**
+	 * Prints the time of every file and the throughput of the batch.
+	 * @param results The results of the batch.
+	 * @param wallTime The wall time of the batch in nanoseconds.
+	 */
+	public static void printSummary(List<Result> results, long wallTime) {
+		int solved = 0;
+		for (Result r : results) {
+			if (r.error == null) {
+				solved++;
+				System.out.println(String.format("%-40s read %8.1f ms  solve %8.1f ms  write %8.1f ms  cost %d",
+						r.fileName, r.readTime / 1e6, r.solveTime / 1e6, r.writeTime / 1e6, r.cost));
+			} else {
+				System.out.println(String.format("%-40s FAILED: %s", r.fileName, r.error));
+			}
+		}
+		double seconds = wallTime / 1e9;
+		System.out.println(String.format("Solved %d of %d instances in %.3f s (%.1f instances/s)",
+				solved, results.size(), seconds, results.size() / seconds));
+	}
+
+	/**
+	 * The result of one file of a batch. The times are in nanoseconds.
+	 */
+	public static class Result {
+
+		private final String fileName;
+
+		private long readTime;
+
+		private long solveTime;
+
+		private long writeTime;
+
+		private long cost;
+
+		private SolveStatus status;
+
+		private String error;
+
+		private Result(String fileName) {
+			this.fileName = fileName;
+		}
+
+		public String getFileName() {
+			return fileName;
+		}
+
+		public long getReadTime() {
+			return readTime;
+		}
+
+		public long getSolveTime() {
+			return solveTime;
+		}
+
+		public long getWriteTime() {
+			return writeTime;
+		}
+
+		public long getCost() {
+			return cost;
+		}
+
+		/**
+		 * Returns the status of the solve.
+		 * @return The status or <code>null</code> if the file could not be read.
+		 */
+		public SolveStatus getStatus() {
+			return status;
+		}
+
+		/**
+		 * Returns the error message if the file could not be solved.
+		 * @return The error message or <code>null</code>.
+		 */
+		public String getError() {
+			return error;
+		}
+
+	}
+
+}
@@ -0,0 +1,247 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import model.network.ArcStore;
+import model.network.Network;
+import model.simplex.ArrayNetworkSimplex;
+import model.simplex.PricingRule;
+import model.simplex.SolveStatus;
+
+/**
+ * The ComponentSolver class splits a network into its weakly connected components
+ * and solves every component as an independent network by the network simplex method.
+ * The components are found by a union-find over the arcs,
+ * and the components are solved concurrently on the given executor.
+ * The flows of the components are written back into the edges of the network
+ * if every component has an optimal flow.
+ * <p>
+ * Splitting pays off if the network has several large components and several cores solve them.
+ * On a connected network or a single core the copies of the components only add work,
+ * then solving the whole network is faster.
+ */
+public class ComponentSolver implements MinCostFlowSolver {
+
+	/**
+	 * Splits a network into its components, solves them concurrently
+	 * and stores the flows in the edges of the network if they are optimal.
+	 * @param network The network.
+	 * @return The status of the solve, see {@link #solve(Network)}.
+	 */
+	public static SolveStatus findMinCostFlow(Network network) {
+		return new ComponentSolver(PricingRule.BLOCK_SEARCH).solve(network);
+	}
+
+	private final PricingRule pricingRule;
+
+	private final Executor executor;
+
+	private int numberOfComponents;
+
+	private SolveStatus status;
+
+	/**
+	 * Creates a solver running the components on the common fork join pool.
+	 * @param pricingRule The rule choosing the entering arcs.
+	 */
+	public ComponentSolver(PricingRule pricingRule) {
+		this(pricingRule, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pricingRule The rule choosing the entering arcs.
+	 * @param executor The executor running the solves of the components.
+	 */
+	public ComponentSolver(PricingRule pricingRule, Executor executor) {
+		this.pricingRule = pricingRule;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the number of weakly connected components of the last network, without isolated vertices.
+	 * @return The number of components.
+	 */
+	public int getNumberOfComponents() {
+		return numberOfComponents;
+	}
+
+	/**
+	 * Returns the status of the last solve.
+	 * @return The status or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns whether the demands of a component of the last network do not sum up to zero
+	 * or a component has no feasible flow.
+	 * @return <code>true</code> if the network is infeasible.
+	 */
+	public boolean isInfeasible() {
+		return status == SolveStatus.INFEASIBLE;
+	}
+
+	/**
+	 * Returns whether a component of the last network has a cycle of negative cost and infinite capacity.
+	 * @return <code>true</code> if the network is unbounded.
+	 */
+	public boolean isUnbounded() {
+		return status == SolveStatus.UNBOUNDED;
+	}
+
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network.
+	 * Nothing is solved if the demands of a component do not balance.
+	 * The network is infeasible if a component is infeasible, otherwise it is unbounded
+	 * if a component is unbounded. The flows are stored only if every component is optimal.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 */
+	@Override
+	public SolveStatus solve(Network network) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		int n = arcs.getNumberOfVertices();
+		int m = arcs.getNumberOfArcs();
+		int[] tail = arcs.getTails();
+		int[] head = arcs.getHeads();
+		long[] demand = arcs.getDemands();
+
+		int[] component = findComponents(n, m, tail, head);
+		// number the components with arcs or demand, isolated vertices without demand are dropped
+		int[] index = new int[n];
+		int[] size = new int[n];
+		numberOfComponents = 0;
+		for (int e=0; e<m; e++) {
+			size[component[tail[e]]]++;
+		}
+		for (int v=0; v<n; v++) {
+			if (component[v] == v && (size[v] > 0 || demand[v] != 0)) {
+				index[v] = numberOfComponents++;
+			}
+		}
+		long[] balance = new long[numberOfComponents];
+		for (int v=0; v<n; v++) {
+			if (size[component[v]] > 0 || demand[v] != 0) {
+				balance[index[component[v]]] += demand[v];
+			}
+		}
+		status = null;
+		for (int c=0; c<numberOfComponents; c++) {
+			if (balance[c] != 0) {
+				status = SolveStatus.INFEASIBLE;
+				return status;
+			}
+		}
+
+		// copy the vertices and arcs into one arc store per component
+		int[] numberOfVertices = new int[numberOfComponents];
+		int[] numberOfArcs = new int[numberOfComponents];
+		int[] vertex = new int[n];
+		int[] arc = new int[m];
+		for (int v=0; v<n; v++) {
+			if (size[component[v]] > 0) {
+				vertex[v] = numberOfVertices[index[component[v]]]++;
+			}
+		}
+		for (int e=0; e<m; e++) {
+			arc[e] = numberOfArcs[index[component[tail[e]]]]++;
+		}
+		final ArcStore[] parts = new ArcStore[numberOfComponents];
+		for (int c=0; c<numberOfComponents; c++) {
+			parts[c] = new ArcStore(numberOfVertices[c], numberOfArcs[c]);
+		}
+		for (int v=0; v<n; v++) {
+			if (size[component[v]] > 0) {
+				parts[index[component[v]]].getDemands()[vertex[v]] = demand[v];
+			}
+		}
+		long[] lower = arcs.getLowerBounds();
+		long[] cap = arcs.getCapacities();
+		long[] cost = arcs.getCosts();
+		for (int e=0; e<m; e++) {
+			ArcStore part = parts[index[component[tail[e]]]];
+			int j = arc[e];
+			part.getTails()[j] = vertex[tail[e]];
+			part.getHeads()[j] = vertex[head[e]];
+			part.getLowerBounds()[j] = lower[e];
+			part.getCapacities()[j] = cap[e];
+			part.getCosts()[j] = cost[e];
+		}
+
+		final long[][] flows = new long[numberOfComponents][];
+		final SolveStatus[] statuses = new SolveStatus[numberOfComponents];
+		CompletableFuture<?>[] solves = new CompletableFuture<?>[numberOfComponents];
+		for (int c=0; c<numberOfComponents; c++) {
+			final int i = c;
+			solves[c] = CompletableFuture.runAsync(new Runnable() {
+				public void run() {
+					ArrayNetworkSimplex simplex = new ArrayNetworkSimplex(parts[i], pricingRule);
+					simplex.solve();
+					flows[i] = simplex.getFlows();
+					statuses[i] = simplex.getStatus();
+				}
+			}, executor);
+		}
+		CompletableFuture.allOf(solves).join();
+
+		status = SolveStatus.OPTIMAL;
+		for (int c=0; c<numberOfComponents; c++) {
+			if (statuses[c] == SolveStatus.INFEASIBLE
+					|| statuses[c] != SolveStatus.OPTIMAL && status == SolveStatus.OPTIMAL) {
+				status = statuses[c];
+			}
+		}
+		if (status != SolveStatus.OPTIMAL) {
+			return status;
+		}
+		long[] flow = new long[m];
+		for (int e=0; e<m; e++) {
+			flow[e] = flows[index[component[tail[e]]]][arc[e]];
+		}
+		arcs.writeFlows(flow);
+		return status;
+	}
+
+	/**
+	 * Finds the weakly connected components by a union-find with union by size and path halving.
+	 * @return The representative vertex of the component of every vertex.
+	 */
+	private static int[] findComponents(int n, int m, int[] tail, int[] head) {
+		int[] parent = new int[n];
+		int[] size = new int[n];
+		for (int v=0; v<n; v++) {
+			parent[v] = v;
+			size[v] = 1;
+		}
+		for (int e=0; e<m; e++) {
+			int u = find(parent, tail[e]);
+			int v = find(parent, head[e]);
+			if (u == v) {
+				continue;
+			}
+			if (size[u] < size[v]) {
+				int t = u;
+				u = v;
+				v = t;
+			}
+			parent[v] = u;
+			size[u] += size[v];
+		}
+		for (int v=0; v<n; v++) {
+			parent[v] = find(parent, v);
+		}
+		return parent;
+	}
+
+	private static int find(int[] parent, int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+}
@@ -0,0 +1,20 @@
+package model;
+
+import model.network.Network;
+import model.simplex.SolveStatus;
+
+/**
+ * A MinCostFlowSolver computes a minimum cost flow of a network
+ * and stores it in the edges with {@link model.network.NetworkEdge#setFlow(long)}.
+ */
+public interface MinCostFlowSolver {
+
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network.
+	 * The flows are stored only if the status is {@link SolveStatus#OPTIMAL}.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 */
+	public SolveStatus solve(Network network);
+
+}
@@ -1,30 +1,55 @@
 package model;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import model.graph.Data;
 import model.graph.Edge;
 import model.graph.Key;
 import model.graph.Vertex;
+import model.network.ArcStore;
+import model.network.Certificate;
 import model.network.Network;
 import model.network.NetworkEdge;
 import model.network.NetworkReader;
 import model.network.NetworkReaderException;
+import model.network.NetworkSnapshot;
 import model.network.NetworkSolutionWriter;
 import model.network.NetworkVertex;
+import model.network.SolutionVerifier;
+import model.simplex.ArrayNetworkSimplex;
+import model.simplex.SolveOptions;
+import model.simplex.SolveStatus;
+import model.simplex.SolverStats;
 
-public class NetworkSimplex {
+public class NetworkSimplex implements MinCostFlowSolver {
 	
 	public static void main(String[] args) {
+		if (args.length == 3 && "-batch".equals(args[0])) {
+			solveBatch(args[1], args[2]);
+			return;
+		}
+		if (args.length == 3 && "-convert".equals(args[0])) {
+			convert(args[1], args[2]);
+			return;
+		}
 		if (args.length != 2) {
 			System.out.println("Usage: java -jar netsimplex.jar <fileinput> <fileoutput>");
+			System.out.println("       java -jar netsimplex.jar -batch <directory|glob> <outputdirectory>");
+			System.out.println("       java -jar netsimplex.jar -convert <fileinput> <snapshotoutput>");
 			return;
 		}
-//		String fileInput = args[0];
-		String fileInput = "files/test.txt";
+		String fileInput = args[0];
 		String fileOutput = args[1];
 		Network network;
 		try {
@@ -33,56 +58,253 @@ public class NetworkSimplex {
 			System.out.println("Created:");
 			System.out.println(network);
 			System.out.println();
-			inDebugMode = true;
-			NetworkSimplex.findMinCostFlow(network);
+			NetworkSimplex solver = new NetworkSimplex();
+			solver.setCollectingStats(true);
+			solver.setVerifying(true);
+			SolveStatus status = solver.solve(network);
 			System.out.println(network);
-//			NetworkSolutionWriter.write(network, fileOutput);
-//			System.out.println("Succesfully write " + fileOutput);
+			System.out.println(solver.getStats());
+			if (solver.getCertificate() != null) {
+				System.out.println(solver.getCertificate());
+			} else {
+				System.out.println("Status: " + status);
+			}
+			if (status != SolveStatus.OPTIMAL) {
+				return;
+			}
+			NetworkSolutionWriter.write(network, fileOutput);
+			System.out.println("Succesfully write " + fileOutput);
+		} catch (NetworkReaderException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Converts a DIMACS file into a {@link NetworkSnapshot}, which is read much faster.
+	 */
+	private static void convert(String fileInput, String fileOutput) {
+		try {
+			long start = System.nanoTime();
+			ArcStore arcs = NetworkReader.readArcStore(fileInput);
+			long read = System.nanoTime();
+			NetworkSnapshot.write(arcs, fileOutput);
+			long written = System.nanoTime();
+			System.out.println("Succesfully read " + fileInput + " in " + (read - start) / 1000000 + " ms");
+			System.out.println("Succesfully write " + fileOutput + " in " + (written - read) / 1000000 + " ms");
 		} catch (NetworkReaderException e) {
 			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static void solveBatch(String input, String outputDirectory) {
+		try {
+			List<Path> files = BatchSolver.findInputFiles(input);
+			if (files.isEmpty()) {
+				System.out.println("No input files found: " + input);
+				return;
+			}
+			long start = System.nanoTime();
+			List<BatchSolver.Result> results = new BatchSolver().solve(files, outputDirectory);
+			BatchSolver.printSummary(results, System.nanoTime() - start);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 	}
 	
-	private static Network network;
+	private Network network;
 	
-	private static HashMap<Key, NetworkEdge> lEdges;
+	private HashMap<Key, NetworkEdge> lEdges;
 	
-	private static HashMap<Key, NetworkEdge> uEdges;
+	private HashMap<Key, NetworkEdge> uEdges;
 	
 	/**
 	 * Spanning tree.
 	 */
-	private static NetworkEdge[] tree;
+	private NetworkEdge[] tree;
 	
 	/**
 	 * Predecessor index in the tree
 	 */
-	private static int[] p;
+	private int[] p;
 	
 	/**
 	 * Depth index in the tree
 	 */
-	private static int[] d;
+	private int[] d;
 	
 	/**
 	 * Successor index in the tree based on depth first search traversion
 	 */
-	private static int[] s;
+	private int[] s;
 	
 	/**
 	 * Dummy root
 	 */
-	private static NetworkVertex root;
+	private NetworkVertex root;
+	
+	private Key vertexPriceDataKey;
+	
+	private Key reducedCostDataKey;
+	
+	private boolean inDebugMode;
+	
+	private boolean collectingStats;
+	
+	private SolverStats stats;
 	
-	private static Key vertexPriceDataKey;
+	private SolveOptions options = new SolveOptions();
 	
-	private static Key reducedCostDataKey;
+	private boolean verifying;
+	
+	private Certificate certificate;
+	
+	/**
+	 * Computes a minimum cost flow with a new solver
+	 * and stores it in the edges of the network if it is optimal.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 */
+	public static SolveStatus findMinCostFlow(Network network) {
+		return new NetworkSimplex().solve(network);
+	}
+	
+	/**
+	 * Computes a minimum cost flow within the limits of the options
+	 * and stores it in the edges of the network if it is optimal.
+	 * @param network The network.
+	 * @param options The limits, the cancellation token and the progress listener.
+	 * @return The status of the solve.
+	 */
+	public static SolveStatus findMinCostFlow(Network network, SolveOptions options) {
+		NetworkSimplex solver = new NetworkSimplex();
+		solver.setOptions(options);
+		return solver.solve(network);
+	}
 	
-	private static boolean inDebugMode;
+	/**
+	 * Computes a minimum cost flow with the given engine
+	 * and stores it in the edges of the network if it is optimal.
+	 * @param network The network.
+	 * @param engine The engine, {@link SolverEngine#AUTO} chooses it from the size of the network.
+	 * @return The status of the solve.
+	 */
+	public static SolveStatus findMinCostFlow(Network network, SolverEngine engine) {
+		return engine.solve(network);
+	}
+	
+	/**
+	 * Computes minimum cost flows for independent networks concurrently.
+	 * Every network is solved by its own solver on the given executor,
+	 * the method returns when all networks are solved.
+	 * @param networks The networks, no two of them may share vertices or edges.
+	 * @param executor The executor running the solves.
+	 */
+	public static void solveAll(Collection<Network> networks, Executor executor) {
+		CompletableFuture<?>[] solves = new CompletableFuture<?>[networks.size()];
+		int i = 0;
+		for (final Network network : networks) {
+			solves[i++] = CompletableFuture.runAsync(new Runnable() {
+				public void run() {
+					findMinCostFlow(network);
+				}
+			}, executor);
+		}
+		CompletableFuture.allOf(solves).join();
+	}
+	
+	/**
+	 * Computes minimum cost flows for independent networks concurrently
+	 * on the common fork join pool, which uses all cores.
+	 * @param networks The networks, no two of them may share vertices or edges.
+	 */
+	public static void solveAll(Collection<Network> networks) {
+		solveAll(networks, ForkJoinPool.commonPool());
+	}
+	
+	public void setDebugMode(boolean inDebugMode) {
+		this.inDebugMode = inDebugMode;
+	}
+	
+	/**
+	 * Sets whether the solver measures its phases, see {@link ArrayNetworkSimplex#setCollectingStats(boolean)}.
+	 * @param collectingStats <code>true</code> to collect stats.
+	 */
+	public void setCollectingStats(boolean collectingStats) {
+		this.collectingStats = collectingStats;
+	}
+	
+	/**
+	 * Sets whether the flows are checked after the solve, see {@link SolutionVerifier}.
+	 * The check takes linear time.
+	 * @param verifying <code>true</code> to check the flows.
+	 */
+	public void setVerifying(boolean verifying) {
+		this.verifying = verifying;
+	}
+	
+	/**
+	 * Returns the certificate of the last solve.
+	 * In debug mode only the feasibility is checked.
+	 * @return The certificate or <code>null</code> if the flows were not checked.
+	 */
+	public Certificate getCertificate() {
+		return certificate;
+	}
+	
+	public SolveOptions getOptions() {
+		return options;
+	}
+	
+	/**
+	 * Sets the limits, the cancellation token and the progress listener, see {@link SolveOptions}.
+	 * In debug mode only the maximal number of pivots is used.
+	 * @param options The options.
+	 */
+	public void setOptions(SolveOptions options) {
+		this.options = options;
+	}
+	
+	/**
+	 * Returns the stats of the last solve.
+	 * @return The stats or <code>null</code> if nothing was solved outside the debug mode.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
 	
-	public static void findMinCostFlow(Network network) {
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network.
+	 * The pivot loop runs on primitive arrays, see {@link ArrayNetworkSimplex}.
+	 * The flows are only stored if they are optimal.
+	 * In debug mode the pivots are performed on the network itself
+	 * and every iteration is printed, the flows are stored in any case.
+	 * A solver keeps its state in the instance, so different solvers
+	 * can be used on different networks at the same time.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 */
+	@Override
+	public SolveStatus solve(Network network) {
 		
-		NetworkSimplex.network = network;
+		if (!inDebugMode) {
+			ArcStore arcs = ArcStore.fromNetwork(network);
+			ArrayNetworkSimplex simplex = new ArrayNetworkSimplex(arcs);
+			simplex.setCollectingStats(collectingStats);
+			simplex.setOptions(options);
+			stats = simplex.solve();
+			certificate = null;
+			if (stats.getStatus() == SolveStatus.OPTIMAL) {
+				arcs.writeFlows(simplex.getFlows());
+				if (verifying) {
+					certificate = new SolutionVerifier().verify(arcs, simplex.getFlows(), simplex.getPotentials());
+				}
+			}
+			return stats.getStatus();
+		}
+		
+		this.network = network;
 		
 		extendNetwork();
 		
@@ -104,12 +326,12 @@ public class NetworkSimplex {
 			System.out.println();
 		}
 		
-		// While entering edge exists
+		// Choose an entering edge while one exists,
+		// if no edge is eligible the flow is optimal
 		int i=1;
-		while (enteringEdgeExists() && i<=5) {
-			
-			// Choose an entering edge
-			NetworkEdge enteringEdge = chooseAnEnteringEdge();
+		boolean unbounded = false;
+		NetworkEdge enteringEdge;
+		while (i<=options.getMaxPivots() && (enteringEdge = chooseAnEnteringEdge()) != null) {
 			
 			if (inDebugMode) {
 				System.out.println("------------ Iteration " + i + " -------------");
@@ -124,6 +346,14 @@ public class NetworkSimplex {
 			
 			// Compute epsilon
 			long epsilon = computeEpsilon(circle, apex);
+			if (epsilon == Long.MAX_VALUE) {
+				// the circle consists of edges with infinite capacity
+				unbounded = true;
+				break;
+			}
+			
+			// Find leavingEdge
+			NetworkEdge leavingEdge = findLeavingEdge(circle, apex, epsilon);
 			
 			if (inDebugMode) {
 				System.out.println("Apex: " + apex);
@@ -136,9 +366,6 @@ public class NetworkSimplex {
 			// Update the flows in circle
 			updateFlowsInCircle(circle, apex, epsilon);
 			
-			// Find leavingEdge
-			NetworkEdge leavingEdge = findLeavingEdge(circle);
-
 			if (inDebugMode) {
 				System.out.println("Leaving edge: " + leavingEdge);
 			}
@@ -173,20 +400,58 @@ public class NetworkSimplex {
 			i++;
 		}
 		
-		// Test optimality
+		SolveStatus status = SolveStatus.OPTIMAL;
+		if (unbounded) {
+			status = SolveStatus.UNBOUNDED;
+		} else if (i > options.getMaxPivots()) {
+			status = SolveStatus.TIME_LIMIT;
+		} else if (hasArtificialFlow()) {
+			status = SolveStatus.INFEASIBLE;
+		}
 		
 		network.removeVertex(root);
 		network.removeVertexData(vertexPriceDataKey);
 		network.removeEdgeData(reducedCostDataKey);
 		
+		// Test feasibility
+		certificate = verifying ? SolutionVerifier.verify(network, null) : null;
+		if (certificate != null) {
+			System.out.println(certificate);
+		}
+		
+		return status;
+	}
+	
+	/**
+	 * Checks whether an edge of the dummy root carries flow.
+	 */
+	private boolean hasArtificialFlow() {
+		for (Edge e : root.getOutgoingEdges()) {
+			if (((NetworkEdge) e).getFlow() > 0) {
+				return true;
+			}
+		}
+		for (Edge e : root.getIngoingEdges()) {
+			if (((NetworkEdge) e).getFlow() > 0) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private static NetworkEdge chooseAnEnteringEdge() {
+	/**
+	 * Chooses an entering edge.
+	 * The entering edge is an edge in L with negative reduced cost
+	 * or an edge in U with positive reduced cost.
+	 * Edges whose lower bound equals the capacity are never eligible.
+	 * @return The entering edge or <code>null</code> if no edge is eligible.
+	 */
+	private NetworkEdge chooseAnEnteringEdge() {
 		int maximumNumberOfCandidates = 5;
 		LinkedList<NetworkEdge> candidates = new LinkedList<NetworkEdge>();
 		for (NetworkEdge e : lEdges.values()) {
 			long rc = (Long) e.getData(reducedCostDataKey).getValue();
-			if (rc < 0) {
+			if (rc < 0 && e.getLowerBound() != e.getCapacity()) {
 				candidates.add(e);
 			}
 			if (candidates.size() >= maximumNumberOfCandidates) {
@@ -196,7 +461,7 @@ public class NetworkSimplex {
 		if (candidates.size() < maximumNumberOfCandidates) {
 			for (NetworkEdge e : uEdges.values()) {
 				long rc = (Long) e.getData(reducedCostDataKey).getValue();
-				if (rc > 0) {
+				if (rc > 0 && e.getLowerBound() != e.getCapacity()) {
 					candidates.add(e);
 				}
 				if (candidates.size() >= maximumNumberOfCandidates) {
@@ -216,7 +481,7 @@ public class NetworkSimplex {
 		return enteringEdge;
 	}
 
-	private static NetworkVertex findApexOfTheCircle(NetworkEdge enteringEdge) {
+	private NetworkVertex findApexOfTheCircle(NetworkEdge enteringEdge) {
 		int u = ((NetworkVertex) enteringEdge.getTail()).getId();
 		int v = ((NetworkVertex) enteringEdge.getHead()).getId();
 		while (u != v) {
@@ -229,7 +494,13 @@ public class NetworkSimplex {
 		return network.getVertex(u);
 	}
 
-	private static LinkedList<NetworkEdge> findCircle(NetworkEdge enteringEdge, NetworkVertex apex) {
+	/**
+	 * Finds the circle of the entering edge in T, starting and ending at the apex.
+	 * The circle is oriented in the direction of the flow change,
+	 * which is against the entering edge if it is in U.
+	 * @return The edges of the circle in the order of its orientation.
+	 */
+	private LinkedList<NetworkEdge> findCircle(NetworkEdge enteringEdge, NetworkVertex apex) {
 		LinkedList<NetworkEdge> circle = new LinkedList<NetworkEdge>();
 		int u = ((NetworkVertex) enteringEdge.getTail()).getId();
 		int v = ((NetworkVertex) enteringEdge.getHead()).getId();
@@ -243,29 +514,40 @@ public class NetworkSimplex {
 			circle.add(tree[v]);
 			v = p[v];
 		}
+		if (uEdges.containsKey(enteringEdge.getKey())) {
+			Collections.reverse(circle);
+		}
 		return circle;
 	}
 
-	private static long computeEpsilon(LinkedList<NetworkEdge> circle, NetworkVertex apex) {
+	/**
+	 * Computes the largest flow change along the oriented circle.
+	 * @return The flow change or <code>Long.MAX_VALUE</code> if it is unbounded.
+	 */
+	private long computeEpsilon(LinkedList<NetworkEdge> circle, NetworkVertex apex) {
 		long epsilon = Long.MAX_VALUE;
 		NetworkVertex w = apex;
 		for (NetworkEdge e : circle) {
-			long r;
-			if (e.getTail() == w) {
-				// e is a forward edge
-				r = e.getCapacity() - e.getFlow();
-				w = (NetworkVertex) e.getHead();
-			} else {
-				// e is a backward edge
-				r = e.getFlow() - e.getLowerBound();
-				w = (NetworkVertex) e.getTail();
-			}
-			epsilon = Math.min(r, epsilon);
+			epsilon = Math.min(computeResidualCapacity(e, w), epsilon);
+			w = (NetworkVertex) (e.getTail() == w ? e.getHead() : e.getTail());
 		}
 		return epsilon;
 	}
+	
+	/**
+	 * Computes the residual capacity of an edge of the circle entered at the vertex w.
+	 * @return The residual capacity, <code>Long.MAX_VALUE</code> for a forward edge with infinite capacity.
+	 */
+	private long computeResidualCapacity(NetworkEdge e, NetworkVertex w) {
+		if (e.getTail() == w) {
+			// e is a forward edge
+			return e.getCapacity() == Long.MAX_VALUE ? Long.MAX_VALUE : e.getCapacity() - e.getFlow();
+		}
+		// e is a backward edge
+		return e.getFlow() - e.getLowerBound();
+	}
 
-	private static void updateFlowsInCircle(LinkedList<NetworkEdge> circle,
+	private void updateFlowsInCircle(LinkedList<NetworkEdge> circle,
 			NetworkVertex apex, long epsilon) {
 		if (epsilon == 0L) {
 			return;
@@ -284,17 +566,24 @@ public class NetworkSimplex {
 		}
 	}
 
-	private static NetworkEdge findLeavingEdge(LinkedList<NetworkEdge> circle) {
+	/**
+	 * Finds the leaving edge before the flows are changed by epsilon.
+	 * Of the blocking edges the last one in the orientation of the circle starting at the apex leaves,
+	 * which keeps the tree strongly feasible, so that degenerate pivots cannot cycle (Cunningham's rule).
+	 */
+	private NetworkEdge findLeavingEdge(LinkedList<NetworkEdge> circle, NetworkVertex apex, long epsilon) {
 		NetworkEdge leavingEdge = null;
+		NetworkVertex w = apex;
 		for (NetworkEdge e : circle) {
-			if (e.getFlow() == e.getLowerBound() || e.getFlow() == e.getCapacity()) {
+			if (computeResidualCapacity(e, w) == epsilon) {
 				leavingEdge = e;
 			}
+			w = (NetworkVertex) (e.getTail() == w ? e.getHead() : e.getTail());
 		}
 		return leavingEdge;
 	}
 
-	private static LinkedList<NetworkVertex> findSubtreeT2(NetworkEdge leavingEdge) {
+	private LinkedList<NetworkVertex> findSubtreeT2(NetworkEdge leavingEdge) {
 		LinkedList<NetworkVertex> subtreeT2 = new LinkedList<NetworkVertex>();
 		NetworkVertex z = (NetworkVertex) leavingEdge.getTail();
 		NetworkVertex y = (NetworkVertex) leavingEdge.getHead();
@@ -312,7 +601,7 @@ public class NetworkSimplex {
 		return subtreeT2;
 	}
 
-	private static void updateVertexPricesAndReducedCostsInSubtreeT2(
+	private void updateVertexPricesAndReducedCostsInSubtreeT2(
 			LinkedList<NetworkVertex> subtreeT2, NetworkEdge enteringEdge) {
 		long change = -1 * (Long) enteringEdge.getData(reducedCostDataKey).getValue();
 		// Let e = (u,v). If u in T2 then multiply change with -1
@@ -335,7 +624,7 @@ public class NetworkSimplex {
 		}
 	}
 	
-	private static void updateTreeAndLowerAndUpperEdges(
+	private void updateTreeAndLowerAndUpperEdges(
 			NetworkEdge enteringEdge, NetworkEdge leavingEdge, LinkedList<NetworkVertex> subtreeT2) {
 		
 		// remove entering edge from L or U
@@ -389,7 +678,7 @@ public class NetworkSimplex {
 		
 	}
 	
-	private static void updateTheDataStructuresPDS(NetworkEdge enteringEdge,
+	private void updateTheDataStructuresPDS(NetworkEdge enteringEdge,
 			NetworkEdge leavingEdge, LinkedList<NetworkVertex> subtreeT2) {
 		
 		if (leavingEdge == enteringEdge) {
@@ -489,7 +778,7 @@ public class NetworkSimplex {
 	/**
 	 * Extends network by adding a root vertex and edges between this root and all nodes.
 	 */
-	private static void extendNetwork() {
+	private void extendNetwork() {
 		
 		int n = network.getNumberOfVertices();
 		
@@ -530,8 +819,10 @@ public class NetworkSimplex {
 				}
 				// Depends on the net demand,
 				// add a new edge (v,k) or (k,v) to the network
+				// An edge without flow is directed towards k,
+				// so that the initial tree is strongly feasible.
 				NetworkEdge e;
-				if (nb > 0) {
+				if (nb >= 0) {
 					e = new NetworkEdge(v,root);
 				} else {
 					e = new NetworkEdge(root,v);
@@ -547,7 +838,7 @@ public class NetworkSimplex {
 	/**
 	 * Initializes data structures needed.
 	 */
-	private static void defineSpanningTreeDataStructures() {
+	private void defineSpanningTreeDataStructures() {
 		
 		int n = network.getNumberOfVertices();
 		
@@ -587,7 +878,7 @@ public class NetworkSimplex {
 	/**
 	 * Computes the initial flow in the network.
 	 */
-	private static void computeInitialFlows() {
+	private void computeInitialFlows() {
 		
 		for (NetworkEdge e : lEdges.values()) {
 			e.setFlow(e.getLowerBound());
@@ -616,13 +907,13 @@ public class NetworkSimplex {
 				for (Edge edge : v.getIngoingEdges()) {
 					if (edge != e) {
 						NetworkEdge ingoingEdge = (NetworkEdge) edge;
-						x += ingoingEdge.getFlow();
+						x -= ingoingEdge.getFlow();
 					}
 				}
 				for (Edge edge : v.getOutgoingEdges()) {
 					if (edge != e) {
 						NetworkEdge outgoingEdge = (NetworkEdge) edge;
-						x -= outgoingEdge.getFlow();
+						x += outgoingEdge.getFlow();
 					}
 				}
 				e.setFlow(x);
@@ -630,7 +921,7 @@ public class NetworkSimplex {
 		}
 	}
 
-	private static void setInitialVertexPrices() {
+	private void setInitialVertexPrices() {
 		vertexPriceDataKey = network.addVertexData("Vertex price");
 		root.addData(new Data(0L), vertexPriceDataKey);
 		for (Edge edge : root.getOutgoingEdges()) {
@@ -646,7 +937,7 @@ public class NetworkSimplex {
 //		computeVertexPrices(network);
 	}
 
-	private static void setInitialReducedCosts() {
+	private void setInitialReducedCosts() {
 		reducedCostDataKey = network.addEdgeData("Reduced cost");
 		for (Edge edge : network.getEdges()) {
 			NetworkEdge e = (NetworkEdge) edge;
@@ -654,14 +945,14 @@ public class NetworkSimplex {
 		}
 	}
 	
-	private static void computeReducedCost(NetworkEdge e) {
+	private void computeReducedCost(NetworkEdge e) {
 		long yTail = (Long) e.getTail().getData(vertexPriceDataKey).getValue();
 		long yHead = (Long) e.getHead().getData(vertexPriceDataKey).getValue();
 		long cost = e.getCost();
 		e.addData(new Data(cost - yTail + yHead), reducedCostDataKey);
 	}
 	
-	private static void computeVertexPrices(Network network) {
+	private void computeVertexPrices(Network network) {
 		network.getVertex(0).addData(new Data(0L), vertexPriceDataKey);
 		int j = s[0];
 		while (j != 0) {
@@ -679,29 +970,7 @@ public class NetworkSimplex {
 		}
 	}
 	
-	/**
-	 * Check if an entering edge exists.
-	 * The entering edge is an edge in L with negative reduced cost
-	 * or an edge in U with positive reduced cost.
-	 * @return <code>true</code> if an entering edge exists, <code>false</code> otherwise.
-	 */
-	private static boolean enteringEdgeExists() {
-		for (NetworkEdge e : lEdges.values()) {
-			long rc = (Long) e.getData(reducedCostDataKey).getValue();
-			if (rc < 0) {
-				return true;
-			}
-		}
-		for (NetworkEdge e : uEdges.values()) {
-			long rc = (Long) e.getData(reducedCostDataKey).getValue();
-			if (rc > 0) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private static void printTreeAndLowerAndUpperEdges() {
+	private void printTreeAndLowerAndUpperEdges() {
 		int max = 5;
 		if (lEdges.size() <= max) {
 			for (NetworkEdge e : lEdges.values()) {
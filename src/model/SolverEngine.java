@@ -0,0 +1,127 @@
+package model;
+
+import model.costscaling.CostScalingPushRelabel;
+import model.graph.Edge;
+import model.graph.Vertex;
+import model.network.Network;
+import model.network.NetworkEdge;
+import model.network.NetworkVertex;
+import model.shortestpath.SuccessiveShortestPath;
+import model.simplex.ArrayNetworkSimplex;
+import model.simplex.SolveStatus;
+
+/**
+ * The engines computing minimum cost flows.
+ */
+public enum SolverEngine implements MinCostFlowSolver {
+
+	/**
+	 * The network simplex method, see {@link ArrayNetworkSimplex}.
+	 */
+	NETWORK_SIMPLEX {
+		@Override
+		public SolveStatus solve(Network network) {
+			return ArrayNetworkSimplex.findMinCostFlow(network).getStatus();
+		}
+	},
+
+	/**
+	 * The cost scaling push relabel method, see {@link CostScalingPushRelabel}.
+	 */
+	COST_SCALING {
+		@Override
+		public SolveStatus solve(Network network) {
+			return CostScalingPushRelabel.findMinCostFlow(network);
+		}
+	},
+
+	/**
+	 * The successive shortest path method, see {@link SuccessiveShortestPath}.
+	 */
+	SUCCESSIVE_SHORTEST_PATH {
+		@Override
+		public SolveStatus solve(Network network) {
+			return SuccessiveShortestPath.findMinCostFlow(network);
+		}
+	},
+
+	/**
+	 * Chooses the engine from the size of the network, see {@link SolverEngine#select(Network)}.
+	 */
+	AUTO {
+		@Override
+		public SolveStatus solve(Network network) {
+			return select(network).solve(network);
+		}
+	};
+
+	/**
+	 * Number of arcs from which cost scaling is used for dense networks
+	 */
+	public static final int COST_SCALING_MIN_ARCS = 4000000;
+
+	/**
+	 * Average number of arcs per vertex from which a network is dense
+	 */
+	public static final int COST_SCALING_MIN_DENSITY = 16;
+
+	/**
+	 * Number of arcs per unit of total supply from which successive shortest paths are used
+	 */
+	public static final int SUCCESSIVE_SHORTEST_PATH_ARCS_PER_SUPPLY = 10000;
+
+	/**
+	 * Chooses an engine for a network. Networks whose total supply is tiny compared
+	 * with the number of arcs are solved by successive shortest paths,
+	 * large dense networks by cost scaling, if the scaled costs fit into a long,
+	 * and all other networks by the network simplex method.
+	 * The statistics are computed by one pass over the vertices and at most one pass over the edges.
+	 * @param network The network.
+	 * @return The engine.
+	 */
+	public static SolverEngine select(Network network) {
+		int n = network.getNumberOfVertices();
+		int m = network.getNumberOfEdges();
+		if (computeTotalSupply(network) <= m / SUCCESSIVE_SHORTEST_PATH_ARCS_PER_SUPPLY) {
+			return SUCCESSIVE_SHORTEST_PATH;
+		}
+		if (m >= COST_SCALING_MIN_ARCS && m >= (long) COST_SCALING_MIN_DENSITY*n
+				&& CostScalingPushRelabel.isApplicable(n, computeMaxCost(network))) {
+			return COST_SCALING;
+		}
+		return NETWORK_SIMPLEX;
+	}
+
+	/**
+	 * Returns the total supply of a network, the sum of the positive demands.
+	 * @param network The network.
+	 * @return The total supply.
+	 */
+	public static long computeTotalSupply(Network network) {
+		long supply = 0;
+		for (Vertex v : network.getVertices()) {
+			long demand = ((NetworkVertex) v).getDemand();
+			if (demand > 0) {
+				supply += demand;
+			}
+		}
+		return supply;
+	}
+
+	/**
+	 * Returns the largest absolute cost of the edges of a network.
+	 * @param network The network.
+	 * @return The largest absolute cost.
+	 */
+	public static long computeMaxCost(Network network) {
+		long maxCost = 0;
+		for (Edge e : network.getEdges()) {
+			long c = Math.abs(((NetworkEdge) e).getCost());
+			if (maxCost < c) {
+				maxCost = c;
+			}
+		}
+		return maxCost;
+	}
+
+}
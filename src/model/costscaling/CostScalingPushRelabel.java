@@ -0,0 +1,895 @@
+package model.costscaling;
+
+import java.util.Arrays;
+
+import model.network.ArcStore;
+import model.network.Network;
+import model.simplex.SolveStatus;
+
+/**
+ * The CostScalingPushRelabel class implements the cost scaling push relabel
+ * method of Goldberg and Tarjan on a network copied into primitive arrays.
+ * <p>
+ * The costs are multiplied by n+1, so that an epsilon-optimal flow with epsilon 1
+ * is optimal. Every phase divides epsilon by alpha and refines the flow of the last phase
+ * by pushes and relabels. The following heuristics are used:
+ * <ul>
+ * <li>price refinement: before a phase it is checked whether new prices
+ * make the current flow epsilon-optimal, then the phase is skipped,</li>
+ * <li>global update: the prices are recomputed from the distances
+ * to the vertices with a deficit after every n relabels,</li>
+ * <li>arc fixing: arcs with a reduced cost beyond 2n epsilon keep their flow
+ * in all later phases and are not scanned any more.</li>
+ * <li>push look ahead: a vertex without admissible arcs is relabelled
+ * before flow is pushed into it.</li>
+ * </ul>
+ * The vertices of the network have the indices 0 to n-1, the dummy root has the index n.
+ * Every vertex is connected with the root by an artificial arc with the cost M, like in
+ * the network simplex method, so that a flow exists. The root gets the negated sum
+ * of all demands.
+ * <p>
+ * The residual arcs are stored in forward star form, the arcs leaving the vertex u
+ * have the indices first[u] to first[u+1]-1, the fixed arcs are moved to the end of this range.
+ */
+public class CostScalingPushRelabel {
+
+	/**
+	 * Default factor by which epsilon is divided in every phase
+	 */
+	public static final int DEFAULT_ALPHA = 16;
+
+	/**
+	 * Maximum number of passes of the price refinement
+	 */
+	private static final int PRICE_REFINEMENT_PASSES = 4;
+
+	/**
+	 * Number of relabels per vertex between two global updates
+	 */
+	private static final double GLOBAL_UPDATE_FACTOR = 1.0;
+
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network if it is optimal.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 * @throws ArithmeticException If the scaled costs do not fit into a long,
+	 *                             see {@link #isApplicable(ArcStore)}.
+	 */
+	public static SolveStatus findMinCostFlow(Network network) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		CostScalingPushRelabel solver = new CostScalingPushRelabel(arcs);
+		solver.solve();
+		if (solver.getStatus() == SolveStatus.OPTIMAL) {
+			arcs.writeFlows(solver.getFlows());
+		}
+		return solver.getStatus();
+	}
+
+	/**
+	 * Checks whether the scaled costs and the vertex potentials fit into a long.
+	 * @param arcs The arc store.
+	 * @return <code>true</code> if the cost scaling can be used on the arc store.
+	 */
+	public static boolean isApplicable(ArcStore arcs) {
+		return isApplicable(arcs.getNumberOfVertices(), computeMaxCost(arcs), DEFAULT_ALPHA);
+	}
+
+	/**
+	 * Checks whether the scaled costs and the vertex potentials fit into a long
+	 * for a network with the given number of vertices and largest absolute cost.
+	 * The refinement of the phase with epsilon lowers a potential by at most (alpha+1)n epsilon,
+	 * so the potentials stay within about n times the largest scaled cost,
+	 * which is about n^2 times the largest cost.
+	 * @param numberOfVertices The number of vertices.
+	 * @param maxCost The largest absolute cost of an arc.
+	 * @return <code>true</code> if the cost scaling can be used on the network.
+	 */
+	public static boolean isApplicable(int numberOfVertices, long maxCost) {
+		return isApplicable(numberOfVertices, maxCost, DEFAULT_ALPHA);
+	}
+
+	private static boolean isApplicable(int numberOfVertices, long maxCost, int alpha) {
+		try {
+			long n = numberOfVertices + 1L;
+			long maxScaledCost = Math.multiplyExact(computeBigM(numberOfVertices, maxCost), n + 1);
+			long priceRange = 0;
+			long epsilon = maxScaledCost;
+			do {
+				epsilon = Math.max(epsilon / alpha, 1);
+				priceRange = Math.addExact(priceRange, Math.multiplyExact((alpha + 1L)*n, epsilon));
+			} while (epsilon > 1);
+			// the potentials are not positive, so a reduced cost is at most a scaled cost plus the range
+			Math.addExact(maxScaledCost, priceRange);
+			return true;
+		} catch (ArithmeticException e) {
+			return false;
+		}
+	}
+
+	private static long computeMaxCost(ArcStore arcs) {
+		long maxCost = 0;
+		long[] cost = arcs.getCosts();
+		for (int e=0; e<arcs.getNumberOfArcs(); e++) {
+			long c = Math.abs(cost[e]);
+			if (maxCost < c) {
+				maxCost = c;
+			}
+		}
+		return maxCost;
+	}
+
+	private static long computeBigM(int numberOfVertices, long maxCost) {
+		return 1 + Math.round(0.5*numberOfVertices*maxCost);
+	}
+
+	private final ArcStore arcs;
+
+	private final int alpha;
+
+	/**
+	 * Number of vertices including the root
+	 */
+	private final int n;
+
+	/**
+	 * Number of arcs of the original network
+	 */
+	private final int numberOfRealArcs;
+
+	/**
+	 * Dummy root
+	 */
+	private final int root;
+
+	/**
+	 * Residual arcs in forward star form
+	 */
+	private final int[] first;
+
+	private final int[] lastActive;
+
+	private final int[] target;
+
+	private final int[] reverse;
+
+	private final long[] residualCapacity;
+
+	private final long[] cost;
+
+	/**
+	 * Arc of the original network belonging to a residual arc,
+	 * 2e for the forward arc of e and 2e+1 for the backward arc of e.
+	 */
+	private final int[] arcOf;
+
+	/**
+	 * Forward residual arc of every arc
+	 */
+	private final int[] forwardArc;
+
+	private final long[] excess;
+
+	private final long[] price;
+
+	/**
+	 * Current arc of every vertex for the pushes
+	 */
+	private final int[] current;
+
+	/**
+	 * FIFO queue of the active vertices
+	 */
+	private final int[] queue;
+
+	private int queueHead;
+
+	private int queueSize;
+
+	/**
+	 * Work arrays of the global update and the price refinement
+	 */
+	private final long[] rank;
+
+	private final int[] bucketNext;
+
+	private final int[] bucketPrev;
+
+	private int[] bucketFirst;
+
+	private final int[] mark;
+
+	private int markStamp;
+
+	private final int[] order;
+
+	private final long[] flow;
+
+	private boolean unbounded;
+
+	private SolveStatus status;
+
+	private long numberOfPushes;
+
+	private long numberOfRelabels;
+
+	private long numberOfGlobalUpdates;
+
+	private long numberOfPriceRefinements;
+
+	private long numberOfFixedArcs;
+
+	private int relabelsSinceGlobalUpdate;
+
+	public CostScalingPushRelabel(ArcStore arcs) {
+		this(arcs, DEFAULT_ALPHA);
+	}
+
+	/**
+	 * Creates the residual network of an arc store.
+	 * @param arcs The arc store.
+	 * @param alpha The factor by which epsilon is divided in every phase, at least 2.
+	 * @throws ArithmeticException If the scaled costs do not fit into a long.
+	 */
+	public CostScalingPushRelabel(ArcStore arcs, int alpha) {
+		if (alpha < 2) {
+			throw new IllegalArgumentException("alpha must be at least 2: " + alpha);
+		}
+		if (!isApplicable(arcs.getNumberOfVertices(), computeMaxCost(arcs), alpha)) {
+			throw new ArithmeticException("The costs are too large for cost scaling");
+		}
+		this.arcs = arcs;
+		this.alpha = alpha;
+		int n0 = arcs.getNumberOfVertices();
+		int m0 = arcs.getNumberOfArcs();
+		n = n0 + 1;
+		root = n0;
+		numberOfRealArcs = m0;
+		int m = m0 + n0;
+		first = new int[n+1];
+		lastActive = new int[n];
+		target = new int[2*m];
+		reverse = new int[2*m];
+		residualCapacity = new long[2*m];
+		cost = new long[2*m];
+		arcOf = new int[2*m];
+		forwardArc = new int[m];
+		excess = new long[n];
+		price = new long[n];
+		current = new int[n];
+		queue = new int[n];
+		rank = new long[n];
+		bucketNext = new int[n];
+		bucketPrev = new int[n];
+		mark = new int[n];
+		order = new int[n];
+		flow = new long[m0];
+		buildResidualNetwork();
+	}
+
+	public long[] getFlows() {
+		return flow;
+	}
+
+	/**
+	 * Returns whether the arcs with infinite capacity contain a cycle with negative cost.
+	 * @return <code>true</code> if the flow is unbounded.
+	 */
+	public boolean isUnbounded() {
+		return unbounded;
+	}
+
+	/**
+	 * Returns the status of the last solve. The flow is infeasible
+	 * if an artificial arc carries flow at the end.
+	 * @return The status or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public long getNumberOfPushes() {
+		return numberOfPushes;
+	}
+
+	public long getNumberOfRelabels() {
+		return numberOfRelabels;
+	}
+
+	public long getNumberOfGlobalUpdates() {
+		return numberOfGlobalUpdates;
+	}
+
+	/**
+	 * Returns the number of phases skipped by the price refinement.
+	 * @return The number of successful price refinements.
+	 */
+	public long getNumberOfPriceRefinements() {
+		return numberOfPriceRefinements;
+	}
+
+	/**
+	 * Returns the number of residual arcs fixed, two for every arc.
+	 * @return The number of fixed residual arcs.
+	 */
+	public long getNumberOfFixedArcs() {
+		return numberOfFixedArcs;
+	}
+
+	/**
+	 * Creates the residual arcs. The lower bounds are shifted to zero,
+	 * the infinite capacities are replaced by the sum of all supplies and finite capacities,
+	 * which is more than the flow on any arc of a bounded optimal flow needs.
+	 */
+	private void buildResidualNetwork() {
+		int n0 = root;
+		int[] tails = arcs.getTails();
+		int[] heads = arcs.getHeads();
+		long[] lower = arcs.getLowerBounds();
+		long[] capacity = arcs.getCapacities();
+		long[] costs = arcs.getCosts();
+		long bigM = computeBigM(n0, computeMaxCost(arcs));
+		long scale = n + 1;
+
+		// Compute net demand
+		// b'(v) = b(v) - l(delta_p(v)) + l(delta_m(v))
+		System.arraycopy(arcs.getDemands(), 0, excess, 0, n0);
+		long bound = 0;
+		for (int e=0; e<numberOfRealArcs; e++) {
+			excess[tails[e]] -= lower[e];
+			excess[heads[e]] += lower[e];
+			if (capacity[e] != Long.MAX_VALUE) {
+				bound = Math.addExact(bound, capacity[e] - lower[e]);
+			}
+		}
+		long sum = 0;
+		for (int v=0; v<n0; v++) {
+			sum = Math.addExact(sum, excess[v]);
+			if (excess[v] > 0) {
+				bound = Math.addExact(bound, excess[v]);
+			}
+		}
+		excess[root] = -sum;
+		if (excess[root] > 0) {
+			bound = Math.addExact(bound, excess[root]);
+		}
+		long infiniteCapacity = bound + 1;
+
+		// Count the residual arcs leaving every vertex
+		int m = numberOfRealArcs + n0;
+		int[] tail = new int[m];
+		int[] head = new int[m];
+		for (int e=0; e<numberOfRealArcs; e++) {
+			tail[e] = tails[e];
+			head[e] = heads[e];
+		}
+		for (int v=0; v<n0; v++) {
+			int e = numberOfRealArcs + v;
+			if (excess[v] >= 0) {
+				tail[e] = v;
+				head[e] = root;
+			} else {
+				tail[e] = root;
+				head[e] = v;
+			}
+		}
+		for (int e=0; e<m; e++) {
+			first[tail[e]+1]++;
+			first[head[e]+1]++;
+		}
+		for (int v=0; v<n; v++) {
+			first[v+1] += first[v];
+		}
+		int[] next = Arrays.copyOf(first, n);
+		for (int e=0; e<m; e++) {
+			int a = next[tail[e]]++;
+			int b = next[head[e]]++;
+			target[a] = head[e];
+			target[b] = tail[e];
+			reverse[a] = b;
+			reverse[b] = a;
+			arcOf[a] = 2*e;
+			arcOf[b] = 2*e + 1;
+			forwardArc[e] = a;
+			long c = e < numberOfRealArcs ? costs[e] : bigM;
+			cost[a] = c * scale;
+			cost[b] = -c * scale;
+			if (e >= numberOfRealArcs || capacity[e] == Long.MAX_VALUE) {
+				residualCapacity[a] = infiniteCapacity;
+			} else {
+				residualCapacity[a] = capacity[e] - lower[e];
+			}
+		}
+		for (int v=0; v<n; v++) {
+			lastActive[v] = first[v+1];
+		}
+	}
+
+	/**
+	 * Computes a minimum cost flow of the arc store.
+	 */
+	public void solve() {
+
+		if (hasNegativeCycle()) {
+			unbounded = true;
+		} else {
+			long epsilon = 1;
+			for (int a=0; a<cost.length; a++) {
+				epsilon = Math.max(epsilon, Math.abs(cost[a]));
+			}
+			bucketFirst = new int[(int) Math.min((long) alpha*n + 1, Integer.MAX_VALUE - 8)];
+
+			// The zero flow with zero prices is epsilon-optimal for the largest cost,
+			// but it is no circulation, so the first phase cannot be skipped.
+			boolean circulation = false;
+			do {
+				epsilon = Math.max(epsilon / alpha, 1);
+				if (circulation && priceRefinement(epsilon)) {
+					numberOfPriceRefinements++;
+				} else {
+					refine(epsilon);
+					circulation = true;
+				}
+				fixArcs(epsilon);
+			} while (epsilon > 1);
+		}
+
+		// Shift the flows back by the lower bounds
+		long[] lower = arcs.getLowerBounds();
+		for (int e=0; e<numberOfRealArcs; e++) {
+			flow[e] = residualCapacity[reverse[forwardArc[e]]] + lower[e];
+		}
+		status = unbounded ? SolveStatus.UNBOUNDED : hasArtificialFlow() ? SolveStatus.INFEASIBLE : SolveStatus.OPTIMAL;
+	}
+
+	/**
+	 * Checks whether the arcs with infinite capacity contain a cycle with negative cost
+	 * by the Bellman-Ford method on these arcs. A flow reaching the bound which replaces
+	 * the infinite capacities, e.g. on a cycle of zero cost, is no sign of unboundedness.
+	 * @return <code>true</code> if the costs are unbounded.
+	 */
+	private boolean hasNegativeCycle() {
+		long[] capacity = arcs.getCapacities();
+		long[] costs = arcs.getCosts();
+		boolean negative = false;
+		for (int e=0; e<numberOfRealArcs && !negative; e++) {
+			negative = capacity[e] == Long.MAX_VALUE && costs[e] < 0;
+		}
+		if (!negative) {
+			return false;
+		}
+		// Queue based Bellman-Ford from a virtual source connected to all vertices,
+		// a vertex entering the queue n times lies on a negative cycle
+		long[] distance = rank;
+		int[] count = new int[n];
+		boolean[] inQueue = new boolean[n];
+		for (int v=0; v<n; v++) {
+			queue[v] = v;
+			inQueue[v] = true;
+			distance[v] = 0;
+		}
+		int head = 0;
+		int size = n;
+		while (size > 0) {
+			int u = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			inQueue[u] = false;
+			for (int a=first[u]; a<first[u+1]; a++) {
+				int arc = arcOf[a];
+				if ((arc & 1) != 0 || arc >> 1 >= numberOfRealArcs || capacity[arc >> 1] != Long.MAX_VALUE) {
+					continue;
+				}
+				int v = target[a];
+				long d = distance[u] + costs[arc >> 1];
+				if (d < distance[v]) {
+					distance[v] = d;
+					if (!inQueue[v]) {
+						if (++count[v] >= n) {
+							return true;
+						}
+						int i = head + size;
+						queue[i >= n ? i - n : i] = v;
+						inQueue[v] = true;
+						size++;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean hasArtificialFlow() {
+		for (int e=numberOfRealArcs; e<forwardArc.length; e++) {
+			if (residualCapacity[reverse[forwardArc[e]]] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Turns an epsilon*alpha-optimal flow into an epsilon-optimal flow.
+	 * First all admissible arcs are saturated, then the excesses are
+	 * pushed along admissible arcs, relabelling vertices without admissible arcs.
+	 */
+	private void refine(long epsilon) {
+
+		// Saturate the arcs with negative reduced cost
+		for (int u=0; u<n; u++) {
+			for (int a=first[u]; a<lastActive[u]; a++) {
+				long r = residualCapacity[a];
+				if (r > 0 && cost[a] + price[u] - price[target[a]] < 0) {
+					push(a, u, r);
+				}
+			}
+		}
+
+		// Collect the active vertices
+		queueHead = 0;
+		queueSize = 0;
+		for (int u=0; u<n; u++) {
+			current[u] = first[u];
+			if (excess[u] > 0) {
+				queue[queueSize++] = u;
+			}
+		}
+		if (queueSize == 0) {
+			return;
+		}
+		globalUpdate(epsilon);
+
+		int globalUpdateLimit = (int) Math.max(1, GLOBAL_UPDATE_FACTOR * n);
+		while (queueSize > 0) {
+			int u = queue[queueHead];
+			queueHead = queueHead + 1 == n ? 0 : queueHead + 1;
+			queueSize--;
+			discharge(u, epsilon);
+			if (relabelsSinceGlobalUpdate >= globalUpdateLimit) {
+				globalUpdate(epsilon);
+			}
+		}
+	}
+
+	private void push(int a, int u, long delta) {
+		int v = target[a];
+		residualCapacity[a] -= delta;
+		residualCapacity[reverse[a]] += delta;
+		excess[u] -= delta;
+		excess[v] += delta;
+		numberOfPushes++;
+	}
+
+	private void enqueue(int v) {
+		int i = queueHead + queueSize;
+		queue[i >= n ? i - n : i] = v;
+		queueSize++;
+	}
+
+	/**
+	 * Pushes the excess of the vertex u along admissible arcs until it is zero.
+	 */
+	private void discharge(int u, long epsilon) {
+		while (excess[u] > 0) {
+			int end = lastActive[u];
+			long pu = price[u];
+			int a = current[u];
+			for (; a<end; a++) {
+				long r = residualCapacity[a];
+				if (r > 0) {
+					int v = target[a];
+					if (cost[a] + pu - price[v] < 0) {
+						// Look ahead: relabel v first if it could not pass the flow on
+						if (excess[v] >= 0 && v != u && !hasAdmissibleArc(v)
+								&& relabel(v, epsilon) && cost[a] + pu - price[v] >= 0) {
+							continue;
+						}
+						long delta = Math.min(excess[u], r);
+						boolean active = excess[v] > 0;
+						push(a, u, delta);
+						if (!active && excess[v] > 0) {
+							enqueue(v);
+						}
+						if (excess[u] == 0) {
+							break;
+						}
+					}
+				}
+			}
+			if (a < end) {
+				current[u] = a;
+			} else if (!relabel(u, epsilon)) {
+				throw new IllegalStateException("No residual arc leaves the active vertex " + u);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether an admissible arc leaves the vertex v and moves the current arc of v to it.
+	 */
+	private boolean hasAdmissibleArc(int v) {
+		int end = lastActive[v];
+		long pv = price[v];
+		for (int a=current[v]; a<end; a++) {
+			if (residualCapacity[a] > 0 && cost[a] + pv - price[target[a]] < 0) {
+				current[v] = a;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lowers the price of the vertex u as much as possible, so that an admissible arc leaves u.
+	 * @return <code>false</code> if no residual arc leaves u.
+	 */
+	private boolean relabel(int u, long epsilon) {
+		long max = Long.MIN_VALUE;
+		for (int a=first[u]; a<lastActive[u]; a++) {
+			if (residualCapacity[a] > 0) {
+				long p = price[target[a]] - cost[a];
+				if (max < p) {
+					max = p;
+				}
+			}
+		}
+		if (max == Long.MIN_VALUE) {
+			return false;
+		}
+		price[u] = max - epsilon;
+		current[u] = first[u];
+		numberOfRelabels++;
+		relabelsSinceGlobalUpdate++;
+		return true;
+	}
+
+	/**
+	 * Recomputes the prices from the distances to the vertices with a deficit.
+	 * The length of a residual arc is floor(reduced cost / epsilon) + 1,
+	 * the distances are computed with buckets until all active vertices are reached.
+	 * Every price is lowered by epsilon times its distance, which keeps the flow epsilon-optimal.
+	 */
+	private void globalUpdate(long epsilon) {
+		numberOfGlobalUpdates++;
+		relabelsSinceGlobalUpdate = 0;
+		int maxRank = bucketFirst.length - 1;
+		long unreached = maxRank + 1L;
+		Arrays.fill(bucketFirst, -1);
+		int stamp = nextMarkStamp();
+		int active = 0;
+		for (int u=0; u<n; u++) {
+			current[u] = first[u];
+			if (excess[u] > 0) {
+				active++;
+			}
+			if (excess[u] < 0) {
+				rank[u] = 0;
+				addToBucket(u, 0);
+			} else {
+				rank[u] = unreached;
+			}
+		}
+
+		int r = 0;
+		scan:
+		while (r <= maxRank) {
+			while (bucketFirst[r] != -1) {
+				int v = bucketFirst[r];
+				removeFromBucket(v, r);
+				mark[v] = stamp;
+				if (excess[v] > 0 && --active == 0) {
+					break scan;
+				}
+				long pv = price[v];
+				for (int a=first[v]; a<lastActive[v]; a++) {
+					int ra = reverse[a];
+					int u = target[a];
+					if (residualCapacity[ra] > 0 && mark[u] != stamp) {
+						long length = Math.floorDiv(cost[ra] + price[u] - pv, epsilon) + 1;
+						long newRank = r + Math.max(length, 0L);
+						if (newRank < rank[u]) {
+							if (rank[u] <= maxRank) {
+								removeFromBucket(u, (int) rank[u]);
+							}
+							rank[u] = newRank;
+							if (newRank <= maxRank) {
+								addToBucket(u, (int) newRank);
+							}
+						}
+					}
+				}
+			}
+			r++;
+		}
+
+		// The vertices not scanned are at least r away
+		for (int u=0; u<n; u++) {
+			price[u] -= Math.min(rank[u], r) * epsilon;
+		}
+	}
+
+	private void addToBucket(int u, int r) {
+		int f = bucketFirst[r];
+		bucketNext[u] = f;
+		bucketPrev[u] = -1;
+		if (f != -1) {
+			bucketPrev[f] = u;
+		}
+		bucketFirst[r] = u;
+	}
+
+	private void removeFromBucket(int u, int r) {
+		int prev = bucketPrev[u];
+		int next = bucketNext[u];
+		if (prev == -1) {
+			bucketFirst[r] = next;
+		} else {
+			bucketNext[prev] = next;
+		}
+		if (next != -1) {
+			bucketPrev[next] = prev;
+		}
+	}
+
+	private int nextMarkStamp() {
+		if (++markStamp == Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			markStamp = 1;
+		}
+		return markStamp;
+	}
+
+	/**
+	 * Tries to make the current circulation epsilon-optimal by changing the prices only.
+	 * New prices p + epsilon*q are epsilon-optimal, if q(v) <= q(u) + floor(reduced cost / epsilon) + 1
+	 * for every residual arc (u,v). The admissible arcs have non positive lengths,
+	 * so if they contain a cycle the refinement gives up. Otherwise q is computed
+	 * by a few passes over the arcs in topological order of the admissible arcs.
+	 * @return <code>true</code> if the prices were changed and the phase can be skipped.
+	 */
+	private boolean priceRefinement(long epsilon) {
+		if (!sortAdmissibleArcsTopologically()) {
+			return false;
+		}
+		long[] q = rank;
+		Arrays.fill(q, 0L);
+		for (int pass=0; pass<PRICE_REFINEMENT_PASSES; pass++) {
+			boolean changed = false;
+			for (int i=0; i<n; i++) {
+				int u = order[i];
+				long qu = q[u];
+				long pu = price[u];
+				for (int a=first[u]; a<lastActive[u]; a++) {
+					if (residualCapacity[a] > 0) {
+						int v = target[a];
+						long length = Math.floorDiv(cost[a] + pu - price[v], epsilon) + 1;
+						if (qu + length < q[v]) {
+							q[v] = qu + length;
+							changed = true;
+						}
+					}
+				}
+			}
+			if (!changed) {
+				for (int u=0; u<n; u++) {
+					price[u] += q[u] * epsilon;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sorts the vertices topologically with respect to the admissible arcs
+	 * by a depth first search and stores the order.
+	 * @return <code>false</code> if the admissible arcs contain a cycle.
+	 */
+	private boolean sortAdmissibleArcsTopologically() {
+		int visited = nextMarkStamp();
+		int done = nextMarkStamp();
+		int[] stack = bucketNext;
+		int position = n;
+		for (int s=0; s<n; s++) {
+			if (mark[s] == visited || mark[s] == done) {
+				continue;
+			}
+			int top = 0;
+			stack[top++] = s;
+			mark[s] = visited;
+			current[s] = first[s];
+			while (top > 0) {
+				int u = stack[top-1];
+				int a = current[u];
+				int end = lastActive[u];
+				long pu = price[u];
+				for (; a<end; a++) {
+					if (residualCapacity[a] > 0 && cost[a] + pu - price[target[a]] < 0) {
+						break;
+					}
+				}
+				if (a == end) {
+					mark[u] = done;
+					order[--position] = u;
+					top--;
+					continue;
+				}
+				current[u] = a + 1;
+				int v = target[a];
+				if (mark[v] == visited) {
+					return false;
+				}
+				if (mark[v] != done) {
+					mark[v] = visited;
+					current[v] = first[v];
+					stack[top++] = v;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fixes the arcs whose reduced cost is beyond 2n epsilon.
+	 * By a theorem of Goldberg and Tarjan the flow on these arcs
+	 * is the same in every optimal flow, so they are moved behind the active arcs of their tail.
+	 */
+	private void fixArcs(long epsilon) {
+		if (epsilon > Long.MAX_VALUE / (2L*n)) {
+			return;
+		}
+		long threshold = 2L*n*epsilon;
+		for (int u=0; u<n; u++) {
+			int end = lastActive[u];
+			long pu = price[u];
+			for (int a=first[u]; a<end; a++) {
+				long reducedCost = cost[a] + pu - price[target[a]];
+				if (reducedCost > threshold || reducedCost < -threshold) {
+					end--;
+					swapArcs(a, end);
+					a--;
+					numberOfFixedArcs++;
+				}
+			}
+			lastActive[u] = end;
+		}
+	}
+
+	/**
+	 * Swaps two residual arcs leaving the same vertex.
+	 */
+	private void swapArcs(int a, int b) {
+		if (a == b) {
+			return;
+		}
+		int ra = reverse[a];
+		int rb = reverse[b];
+		swap(target, a, b);
+		swap(arcOf, a, b);
+		long r = residualCapacity[a];
+		residualCapacity[a] = residualCapacity[b];
+		residualCapacity[b] = r;
+		long c = cost[a];
+		cost[a] = cost[b];
+		cost[b] = c;
+		// The reverse arcs may be a or b themselves for loops
+		int newRa = ra == a ? b : ra == b ? a : ra;
+		int newRb = rb == a ? b : rb == b ? a : rb;
+		reverse[b] = newRa;
+		reverse[newRa] = b;
+		reverse[a] = newRb;
+		reverse[newRb] = a;
+		if ((arcOf[a] & 1) == 0) {
+			forwardArc[arcOf[a] >> 1] = a;
+		}
+		if ((arcOf[b] & 1) == 0) {
+			forwardArc[arcOf[b] >> 1] = b;
+		}
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int t = array[i];
+		array[i] = array[j];
+		array[j] = t;
+	}
+
+}
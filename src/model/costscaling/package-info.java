@@ -0,0 +1,5 @@
+/**
+ * Provides the cost scaling push relabel method working on a network
+ * copied into primitive arrays.
+ */
+package model.costscaling;
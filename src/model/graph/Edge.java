@@ -33,7 +33,17 @@ public class Edge {
     private Edge counterEdge;
     
     public Edge(Vertex tail, Vertex head) {
-        key = new Key(Graph.internalIdCounter++);
+    	this(tail, head, Graph.nextInternalId());
+    }
+    
+    /**
+     * Creates an edge with an id allocated before, see {@link Graph#nextInternalIds(int)}.
+     * @param tail The start vertex.
+     * @param head The end vertex.
+     * @param id The id of the edge.
+     */
+    protected Edge(Vertex tail, Vertex head, long id) {
+        key = new Key(id);
 		setTail(tail);
 		setHead(head);
 		head.addIngoingEdge(this);
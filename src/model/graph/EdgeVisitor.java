@@ -0,0 +1,15 @@
+package model.graph;
+
+/**
+ * An edge visitor is called for every edge of a graph by {@link Graph#forEachEdge(EdgeVisitor)}.
+ */
+public interface EdgeVisitor {
+
+	/**
+	 * Visits an edge.
+	 * @param index The number of edges visited before, from 0 to m-1.
+	 * @param e The edge.
+	 */
+	void visit(int index, Edge e);
+
+}
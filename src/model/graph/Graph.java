@@ -1,11 +1,18 @@
 package model.graph;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The Graph class implements a graph.
+ * Vertices and edges may be added and removed by several threads, these mutations are serialized.
+ * Reads are not synchronized and must not overlap a mutation,
+ * the data of the edges and vertices is not synchronized either.
+ * The vertices and the edges are returned as unmodifiable live views, which are not copied
+ * and must not be iterated while the graph is changed.
  */
 public class Graph {
 	
@@ -25,6 +32,13 @@ public class Graph {
 	 */
 	private HashMap<Key, Edge> edges = new HashMap<Key, Edge>();
 	
+	/**
+	 * Unmodifiable views of the vertices and the edges
+	 */
+	private final Collection<Vertex> vertexView = Collections.unmodifiableCollection(vertices.values());
+	
+	private final Collection<Edge> edgeView = Collections.unmodifiableCollection(edges.values());
+	
     // For fast access to data keys via their description or vice versa
     private Vector<Key> vertexDataKeys = new Vector<Key>();
     
@@ -34,11 +48,29 @@ public class Graph {
     
     private Vector<String> edgeDataDescriptions = new Vector<String>();
 
-    //id counter used for edge, vertex and data construction
-    protected static Long internalIdCounter = 0L;
+    //id counter used for edge, vertex and data construction,
+    //shared by all graphs and safe to use from several threads
+    private static final AtomicLong internalIdCounter = new AtomicLong();
     
     public Graph() {}
 	
+	/**
+	 * Allocates a new id for an edge, a vertex or a data key.
+	 * @return The new id, unique in this JVM.
+	 */
+	protected static long nextInternalId() {
+		return internalIdCounter.getAndIncrement();
+	}
+	
+	/**
+	 * Allocates a block of consecutive ids, e.g. for edges created by several threads.
+	 * @param count The number of ids.
+	 * @return The first id of the block.
+	 */
+	protected static long nextInternalIds(int count) {
+		return internalIdCounter.getAndAdd(count);
+	}
+	
 	public boolean isDirected() {
 		return isDirected;
 	}
@@ -63,7 +95,7 @@ public class Graph {
 		this.name = name;
 	}
 	
-	public void addVertex(Vertex v) {
+	public synchronized void addVertex(Vertex v) {
 		vertices.put(v.getKey(), v);
 	}
 	
@@ -80,7 +112,7 @@ public class Graph {
 	 * Removes the vertex from the graph.
 	 * @param v The vertex to be removed.
 	 */
-	public void removeVertex(Vertex v) {
+	public synchronized void removeVertex(Vertex v) {
 		vertices.remove(v.getKey());
 		for (Edge e : v.getOutgoingEdges()) {
 			edges.remove(e.getKey());
@@ -92,15 +124,30 @@ public class Graph {
 		}
 	}
 	
+	/**
+	 * Returns the vertices of the graph.
+	 * @return An unmodifiable live view of the vertices.
+	 */
 	public Collection<Vertex> getVertices() {
-		return vertices.values();
+		return vertexView;
 	}
 	
 	public int getNumberOfVertices() {
 		return vertices.size();
 	}
 	
-	public void addEdge(Edge e) {
+	/**
+	 * Calls the visitor for every vertex in the order of {@link #getVertices()}.
+	 * @param visitor The visitor.
+	 */
+	public void forEachVertex(VertexVisitor visitor) {
+		int index = 0;
+		for (Vertex v : vertices.values()) {
+			visitor.visit(index++, v);
+		}
+	}
+	
+	public synchronized void addEdge(Edge e) {
 		edges.put(e.getKey(), e);
 		// If the graph is undirected, add an counter edge
 		if (!isDirected) {
@@ -115,23 +162,44 @@ public class Graph {
 		}
 	}
 	
+	/**
+	 * Adds the edges from (inclusive) to to (exclusive) of an array at once.
+	 * Several threads may add their edges at the same time.
+	 * @param edges The edges.
+	 * @param from The index of the first edge.
+	 * @param to The index after the last edge.
+	 */
+	public synchronized void addEdges(Edge[] edges, int from, int to) {
+		for (int j=from; j<to; j++) {
+			addEdge(edges[j]);
+		}
+	}
+	
 	public Edge getEdge(Key key) {
 		return edges.get(key);
 	}
 	
-	public Vector<Edge> getEdges() {
-		Vector<Edge> vec = new Vector<Edge>();
-		if (isDirected) {
-			for (Edge e: edges.values()) {
-				vec.add(e);
-			}
-		} else {
-			// TODO if the graph is undirected
-			for (Edge e: edges.values()) {
-				vec.add(e);
-			}
+	/**
+	 * Returns the edges of the graph, the counter edges of an undirected graph included.
+	 * @return An unmodifiable live view of the edges.
+	 */
+	public Collection<Edge> getEdges() {
+		return edgeView;
+	}
+	
+	public int getNumberOfEdges() {
+		return edges.size();
+	}
+	
+	/**
+	 * Calls the visitor for every edge in the order of {@link #getEdges()}.
+	 * @param visitor The visitor.
+	 */
+	public void forEachEdge(EdgeVisitor visitor) {
+		int index = 0;
+		for (Edge e : edges.values()) {
+			visitor.visit(index++, e);
 		}
-		return vec;
 	}
 	
 	public Key addVertexData(String description) {
@@ -139,12 +207,22 @@ public class Graph {
 			System.err.println("This description for the vertex data already available: " + description);
 			return null;
 		}
-		Key k = new Key(internalIdCounter++);
+		Key k = new Key(nextInternalId());
 		vertexDataKeys.add(k);
 		vertexDataDescriptions.add(description);
 		return k;
 	}
 	
+	/**
+	 * Registers a vertex data key created elsewhere under the given description.
+	 * @param description The description of the data.
+	 * @param dataKey The key of the data.
+	 */
+	protected void addVertexData(String description, Key dataKey) {
+		vertexDataKeys.add(dataKey);
+		vertexDataDescriptions.add(description);
+	}
+	
 	public Key getKeyOfVertexData(String description) {
 		if (!vertexDataDescriptions.contains(description)) {
 			System.err.println("Unknown description for the vertex data: " + description);
@@ -170,11 +248,21 @@ public class Graph {
 			System.err.println("This description for the edge data already available: " + description);
 			return null;
 		}
-		Key k = new Key(internalIdCounter++);
+		Key k = new Key(nextInternalId());
 		edgeDataKeys.add(k);
 		edgeDataDescriptions.add(description);
 		return k;
 	}
+	
+	/**
+	 * Registers an edge data key created elsewhere under the given description.
+	 * @param description The description of the data.
+	 * @param dataKey The key of the data.
+	 */
+	protected void addEdgeData(String description, Key dataKey) {
+		edgeDataKeys.add(dataKey);
+		edgeDataDescriptions.add(description);
+	}
 
 	public Key getKeyOfEdgeData(String description) {
 		if (!edgeDataDescriptions.contains(description)) {
@@ -221,12 +309,12 @@ public class Graph {
 		boolean good = true;
         //check if edge is stored as in/outgoing edge at tail/head
 		for (Edge e : edges.values()) {
-			if (!e.getHead().getIngoingEdges().contains(e)) {
+			if (!e.getHead().hasIngoingEdge(e)) {
 				System.err.println("Edge is not saved correctly as an ingoing edge:");
 				System.err.println(e);
 				return !good;
 			}
-			if (!e.getTail().getOutgoingEdges().contains(e)) {
+			if (!e.getTail().hasOutgoingEdge(e)) {
 				System.err.println("Edge is not saved correctly as an outgoing edge:");
 				System.err.println(e);
 				return !good;
@@ -19,7 +19,7 @@ public class Vertex {
     private final Key key;
     
     public Vertex() {
-    	key = new Key(Graph.internalIdCounter++);
+    	key = new Key(Graph.nextInternalId());
     }
     
     public void setName(String name) {
@@ -30,22 +30,36 @@ public class Vertex {
 		return name;
 	}
 
-	public void addIngoingEdge(Edge e) {
+	public synchronized void addIngoingEdge(Edge e) {
     	ingoingEdges.put(e.getKey(), e);
     }
     
-    public void addOutgoingEdge(Edge e) {
+    public synchronized void addOutgoingEdge(Edge e) {
     	outgoingEdges.put(e.getKey(), e);
     }
     
-    public void removeIngoingEdge(Edge e) {
+    public synchronized void removeIngoingEdge(Edge e) {
     	ingoingEdges.remove(e.getKey());
     }
     
-    public void removeOutgoingEdge(Edge e) {
+    public synchronized void removeOutgoingEdge(Edge e) {
     	outgoingEdges.remove(e.getKey());
     }
 
+    /**
+     * Checks by the key of an edge whether it is stored as an ingoing edge.
+     */
+    boolean hasIngoingEdge(Edge e) {
+        return ingoingEdges.get(e.getKey()) == e;
+    }
+
+    /**
+     * Checks by the key of an edge whether it is stored as an outgoing edge.
+     */
+    boolean hasOutgoingEdge(Edge e) {
+        return outgoingEdges.get(e.getKey()) == e;
+    }
+
     public Collection<Edge> getIngoingEdges() {
         return (this.ingoingEdges.values());
     }
@@ -0,0 +1,15 @@
+package model.graph;
+
+/**
+ * A vertex visitor is called for every vertex of a graph by {@link Graph#forEachVertex(VertexVisitor)}.
+ */
+public interface VertexVisitor {
+
+	/**
+	 * Visits a vertex.
+	 * @param index The number of vertices visited before, from 0 to n-1.
+	 * @param v The vertex.
+	 */
+	void visit(int index, Vertex v);
+
+}
@@ -0,0 +1,287 @@
+package model.network;
+
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.graph.Edge;
+import model.graph.EdgeVisitor;
+import model.graph.Key;
+import model.graph.Vertex;
+import model.graph.VertexVisitor;
+
+/**
+ * The ArcStore class holds a network in structure-of-arrays form.
+ * The vertices are indexed from 0 to n-1 and the arcs from 0 to m-1.
+ * An arc store created from a {@link Network} or turned into one remembers
+ * the edges, so that the flows computed on the arrays can be written back.
+ */
+public class ArcStore {
+
+	/**
+	 * Number of arcs from which the edges of a network are created in parallel, and the size of a chunk
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private static final int CHUNK_SIZE = 1 << 14;
+
+	private final int numberOfVertices;
+
+	private final int numberOfArcs;
+
+	private final long[] demand;
+
+	private final int[] tail;
+
+	private final int[] head;
+
+	private final long[] lowerBound;
+
+	private final long[] capacity;
+
+	private final long[] cost;
+
+	/**
+	 * The original network and its edges, <code>null</code> if the store was not created from a network.
+	 */
+	private Network network;
+
+	private NetworkEdge[] edges;
+
+	/**
+	 * Indices of the vertices and the edges of the original network
+	 */
+	private HashMap<Key, Integer> vertexIndex;
+
+	private HashMap<Key, Integer> edgeIndex;
+
+	public ArcStore(int numberOfVertices, int numberOfArcs) {
+		this.numberOfVertices = numberOfVertices;
+		this.numberOfArcs = numberOfArcs;
+		demand = new long[numberOfVertices];
+		tail = new int[numberOfArcs];
+		head = new int[numberOfArcs];
+		lowerBound = new long[numberOfArcs];
+		capacity = new long[numberOfArcs];
+		cost = new long[numberOfArcs];
+	}
+
+	/**
+	 * Copies a network into a new arc store.
+	 * @param network The network.
+	 * @return The arc store holding the data of the network.
+	 */
+	public static ArcStore fromNetwork(Network network) {
+		int n = network.getNumberOfVertices();
+		final HashMap<Key, Integer> index = new HashMap<Key, Integer>();
+		final ArcStore arcs = new ArcStore(n, network.getNumberOfEdges());
+		arcs.network = network;
+		arcs.vertexIndex = index;
+		network.forEachVertex(new VertexVisitor() {
+			@Override
+			public void visit(int i, Vertex vertex) {
+				NetworkVertex v = (NetworkVertex) vertex;
+				index.put(v.getKey(), i);
+				arcs.demand[i] = v.getDemand();
+			}
+		});
+		arcs.edges = new NetworkEdge[arcs.numberOfArcs];
+		network.forEachEdge(new EdgeVisitor() {
+			@Override
+			public void visit(int j, Edge edge) {
+				NetworkEdge e = (NetworkEdge) edge;
+				arcs.edges[j] = e;
+				arcs.tail[j] = index.get(e.getTail().getKey());
+				arcs.head[j] = index.get(e.getHead().getKey());
+				arcs.lowerBound[j] = e.getLowerBound();
+				arcs.capacity[j] = e.getCapacity();
+				arcs.cost[j] = e.getCost();
+			}
+		});
+		return arcs;
+	}
+
+	/**
+	 * Creates a network from the data of this store and links the store with it,
+	 * so that the flows can be written back into its edges.
+	 * The vertex with the index i gets the id and the name i+1,
+	 * the edges are created in the order of the arcs.
+	 * Large networks are created on the common pool if it has more than one thread.
+	 * @return The network.
+	 */
+	public Network toNetwork() {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return toNetwork(numberOfArcs >= PARALLEL_THRESHOLD && pool.getParallelism() > 1 ? pool : null);
+	}
+
+	/**
+	 * Creates a network from the data of this store and links the store with it.
+	 * The edges get consecutive ids in the order of the arcs,
+	 * so the network does not depend on the number of threads.
+	 * @param pool The pool creating the edges in chunks, or <code>null</code> to create them in this thread.
+	 * @return The network.
+	 */
+	public Network toNetwork(ForkJoinPool pool) {
+		network = new Network();
+		vertexIndex = new HashMap<Key, Integer>();
+		NetworkVertex[] vertices = new NetworkVertex[numberOfVertices];
+		for (int i=0; i<numberOfVertices; i++) {
+			vertices[i] = new NetworkVertex();
+			network.addVertex(vertices[i], i+1);
+			vertices[i].setName(""+(i+1));
+			vertices[i].setDemand(demand[i]);
+			vertexIndex.put(vertices[i].getKey(), i);
+		}
+		edges = new NetworkEdge[numberOfArcs];
+		edgeIndex = null;
+		EdgeChunk all = new EdgeChunk(vertices, Network.nextEdgeIds(numberOfArcs), pool != null, 0, numberOfArcs);
+		if (pool == null) {
+			all.compute();
+		} else {
+			pool.invoke(all);
+		}
+		return network;
+	}
+
+	/**
+	 * Creates the edges of the arcs from (inclusive) to to (exclusive) and adds them to the network.
+	 * Ranges larger than a chunk are split in two halves, which are created in parallel.
+	 */
+	private final class EdgeChunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final NetworkVertex[] vertices;
+
+		private final long firstId;
+
+		private final boolean parallel;
+
+		private final int from;
+
+		private final int to;
+
+		EdgeChunk(NetworkVertex[] vertices, long firstId, boolean parallel, int from, int to) {
+			this.vertices = vertices;
+			this.firstId = firstId;
+			this.parallel = parallel;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (parallel && to - from > CHUNK_SIZE) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new EdgeChunk(vertices, firstId, true, from, mid), new EdgeChunk(vertices, firstId, true, mid, to));
+				return;
+			}
+			for (int j=from; j<to; j++) {
+				NetworkEdge e = new NetworkEdge(vertices[tail[j]], vertices[head[j]], firstId + j);
+				e.setLowerBound(lowerBound[j]);
+				e.setCapacity(capacity[j]);
+				e.setCost(cost[j]);
+				e.setFlow(0L);
+				edges[j] = e;
+			}
+			network.addEdges(edges, from, to);
+		}
+
+	}
+
+	/**
+	 * Writes the flows back into the edges of the network this store was created from.
+	 * @param flow The flow of every arc, indexed as in this store.
+	 */
+	public void writeFlows(long[] flow) {
+		if (edges == null) {
+			throw new IllegalStateException("The arc store was not created from a network");
+		}
+		for (int j=0; j<numberOfArcs; j++) {
+			edges[j].setFlow(flow[j]);
+		}
+	}
+
+	/**
+	 * Returns the index of a vertex of the network this store was created from.
+	 * @param v The vertex.
+	 * @return The index of the vertex or -1 if it is unknown.
+	 */
+	public int indexOf(NetworkVertex v) {
+		Integer i = vertexIndex == null ? null : vertexIndex.get(v.getKey());
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Returns the index of an edge of the network this store was created from.
+	 * @param e The edge.
+	 * @return The index of the edge or -1 if it is unknown.
+	 */
+	public int indexOf(NetworkEdge e) {
+		if (edges == null) {
+			return -1;
+		}
+		if (edgeIndex == null) {
+			edgeIndex = new HashMap<Key, Integer>();
+			for (int j=0; j<numberOfArcs; j++) {
+				edgeIndex.put(edges[j].getKey(), j);
+			}
+		}
+		Integer j = edgeIndex.get(e.getKey());
+		return j == null ? -1 : j;
+	}
+
+	/**
+	 * Returns whether all costs, lower bounds and capacities fit into an int.
+	 * @return <code>true</code> if the arc data fits into 32 bits.
+	 */
+	public boolean fitsInInt() {
+		for (int j=0; j<numberOfArcs; j++) {
+			if (cost[j] != (int) cost[j] || lowerBound[j] != (int) lowerBound[j]
+					|| capacity[j] != (int) capacity[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public Network getNetwork() {
+		return network;
+	}
+
+	public int getNumberOfVertices() {
+		return numberOfVertices;
+	}
+
+	public int getNumberOfArcs() {
+		return numberOfArcs;
+	}
+
+	public long[] getDemands() {
+		return demand;
+	}
+
+	public int[] getTails() {
+		return tail;
+	}
+
+	public int[] getHeads() {
+		return head;
+	}
+
+	public long[] getLowerBounds() {
+		return lowerBound;
+	}
+
+	public long[] getCapacities() {
+		return capacity;
+	}
+
+	public long[] getCosts() {
+		return cost;
+	}
+
+	public NetworkEdge[] getEdges() {
+		return edges;
+	}
+
+}
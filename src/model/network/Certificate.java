@@ -0,0 +1,138 @@
+package model.network;
+
+/**
+ * The Certificate class holds the result of a {@link SolutionVerifier} check of a flow.
+ * A flow is feasible if it respects the bounds of every arc and the demand of every vertex.
+ * It is optimal if it is feasible and the complementary slackness conditions hold
+ * for the given vertex potentials: an arc with positive reduced cost carries its lower bound,
+ * an arc with negative reduced cost carries its capacity.
+ */
+public class Certificate {
+
+	int numberOfVertices;
+
+	int numberOfArcs;
+
+	long objective;
+
+	boolean slacknessChecked;
+
+	int boundViolations;
+
+	int conservationViolations;
+
+	int slacknessViolations;
+
+	/**
+	 * The first violating arc or vertex of every check, -1 if there is none
+	 */
+	int firstBoundViolation = -1;
+
+	int firstConservationViolation = -1;
+
+	int firstSlacknessViolation = -1;
+
+	public boolean isFeasible() {
+		return boundViolations == 0 && conservationViolations == 0;
+	}
+
+	/**
+	 * Returns whether the flow is feasible and the complementary slackness conditions hold.
+	 * @return <code>false</code> if no potentials were given.
+	 */
+	public boolean isOptimal() {
+		return isFeasible() && slacknessChecked && slacknessViolations == 0;
+	}
+
+	public boolean isSlacknessChecked() {
+		return slacknessChecked;
+	}
+
+	public int getNumberOfVertices() {
+		return numberOfVertices;
+	}
+
+	public int getNumberOfArcs() {
+		return numberOfArcs;
+	}
+
+	/**
+	 * Returns the cost of the flow, computed during the check.
+	 * @return The objective.
+	 */
+	public long getObjective() {
+		return objective;
+	}
+
+	public int getBoundViolations() {
+		return boundViolations;
+	}
+
+	public int getConservationViolations() {
+		return conservationViolations;
+	}
+
+	public int getSlacknessViolations() {
+		return slacknessViolations;
+	}
+
+	/**
+	 * Returns the index of the first arc whose flow violates its bounds.
+	 * @return The arc index in the {@link ArcStore} or -1.
+	 */
+	public int getFirstBoundViolation() {
+		return firstBoundViolation;
+	}
+
+	/**
+	 * Returns the index of the first vertex whose demand is not met.
+	 * @return The vertex index in the {@link ArcStore} or -1.
+	 */
+	public int getFirstConservationViolation() {
+		return firstConservationViolation;
+	}
+
+	/**
+	 * Returns the index of the first arc violating complementary slackness.
+	 * @return The arc index in the {@link ArcStore} or -1.
+	 */
+	public int getFirstSlacknessViolation() {
+		return firstSlacknessViolation;
+	}
+
+	/**
+	 * Adds the counts of a certificate for a later range of arcs.
+	 */
+	void merge(Certificate other) {
+		objective += other.objective;
+		boundViolations += other.boundViolations;
+		slacknessViolations += other.slacknessViolations;
+		if (firstBoundViolation == -1) {
+			firstBoundViolation = other.firstBoundViolation;
+		}
+		if (firstSlacknessViolation == -1) {
+			firstSlacknessViolation = other.firstSlacknessViolation;
+		}
+	}
+
+	@Override
+	public String toString() {
+		String result = isOptimal() ? "Optimal" : isFeasible() ? "Feasible" : "Infeasible";
+		result += ", cost: " + objective;
+		if (boundViolations > 0) {
+			result += ", arcs violating their bounds: " + boundViolations + " (first " + firstBoundViolation + ")";
+		}
+		if (conservationViolations > 0) {
+			result += ", vertices violating their demands: " + conservationViolations
+					+ " (first " + firstConservationViolation + ")";
+		}
+		if (!slacknessChecked) {
+			result += ", complementary slackness not checked";
+		} else if (slacknessViolations > 0) {
+			result += ", arcs violating complementary slackness: " + slacknessViolations
+					+ " (first " + firstSlacknessViolation + ")";
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,683 @@
+package model.network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The DimacsParser class reads a minimum cost flow problem in the DIMACS format
+ * into an {@link ArcStore}.
+ * <p>
+ * The file is mapped into memory and the numbers are parsed directly from the bytes,
+ * no objects are created per line. The arrays of the arc store are allocated
+ * with the sizes given by the problem line <code>p min &lt;nodes&gt; &lt;arcs&gt;</code>.
+ * Node lines <code>n &lt;id&gt; &lt;demand&gt;</code> set the demands,
+ * arc lines <code>a &lt;tail&gt; &lt;head&gt; &lt;lower&gt; &lt;capacity&gt; &lt;cost&gt;</code>
+ * fill the arcs in the order of the file. The vertex with the id i gets the index i-1.
+ * Comment lines and other lines are skipped.
+ * Files larger than a mapping are mapped in windows ending at a line break.
+ * <p>
+ * Large files are parsed in parallel: the lines after the problem line are split at line breaks
+ * into chunks, which are parsed on a pool into buffers of their own. The buffers are then
+ * copied into the arc store in the order of the chunks, so the arcs keep the order of the file
+ * and the same errors are reported as by the sequential parse.
+ * <p>
+ * A stream, e.g. of a compressed file, is read by a separate thread into blocks ending at a line break,
+ * which are handed to the parser through a bounded queue and parsed as the windows of a file.
+ */
+public class DimacsParser {
+
+	/**
+	 * Maximal size of a mapped window of the file
+	 */
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	/**
+	 * Minimal size of a chunk parsed in parallel
+	 */
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Size and number of the blocks of a stream
+	 */
+	private static final int BLOCK_SIZE = 1 << 22;
+
+	private static final int NUMBER_OF_BLOCKS = 4;
+
+	/**
+	 * Marks the end of a stream in the queue of read blocks
+	 */
+	private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+	/**
+	 * Reads a file into an arc store, in parallel on the common pool
+	 * if it has more than one thread.
+	 * @param fileName The name of the file.
+	 * @return The arc store, which is not linked with a network, see {@link ArcStore#toNetwork()}.
+	 * @throws NetworkReaderException If the file cannot be read or is not a valid problem.
+	 */
+	public static ArcStore parse(String fileName) throws NetworkReaderException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return parse(fileName, pool.getParallelism() > 1 ? pool : null);
+	}
+
+	/**
+	 * Reads a file into an arc store.
+	 * @param fileName The name of the file.
+	 * @param pool The pool parsing the chunks of the file, or <code>null</code> to parse in this thread.
+	 * @return The arc store, which is not linked with a network, see {@link ArcStore#toNetwork()}.
+	 * @throws NetworkReaderException If the file cannot be read or is not a valid problem.
+	 */
+	public static ArcStore parse(String fileName, ForkJoinPool pool) throws NetworkReaderException {
+		return new DimacsParser().parseFile(fileName, WINDOW_SIZE, pool, CHUNK_SIZE);
+	}
+
+	/**
+	 * Reads an opened file into an arc store, in parallel on the common pool
+	 * if it has more than one thread.
+	 * @param channel The channel of the file, which is not closed.
+	 * @param fileName The name of the file in the error messages.
+	 */
+	static ArcStore parse(FileChannel channel, String fileName) throws NetworkReaderException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		return new DimacsParser().parseFile(channel, fileName, WINDOW_SIZE,
+				pool.getParallelism() > 1 ? pool : null, CHUNK_SIZE);
+	}
+
+	/**
+	 * Reads a stream into an arc store. The stream is read by a separate thread,
+	 * so reading, e.g. inflating a compressed stream, and parsing overlap.
+	 * @param in The stream, which is not closed.
+	 * @param name The name of the stream in the error messages.
+	 * @param pool The pool parsing the chunks of the stream, or <code>null</code> to parse in this thread.
+	 * @return The arc store, which is not linked with a network, see {@link ArcStore#toNetwork()}.
+	 * @throws NetworkReaderException If the stream cannot be read or is not a valid problem.
+	 */
+	public static ArcStore parse(InputStream in, String name, ForkJoinPool pool) throws NetworkReaderException {
+		return new DimacsParser().parseStream(in, name, pool, CHUNK_SIZE, BLOCK_SIZE, NUMBER_OF_BLOCKS);
+	}
+
+	private ArcStore arcs;
+
+	private boolean problemFound;
+
+	private int numberOfVertices;
+
+	private int numberOfArcs;
+
+	private int arcCount;
+
+	/**
+	 * Buffers of a chunk: the arcs and the node lines in the order of the chunk,
+	 * <code>null</code> if the parser fills the arc store
+	 */
+	private int[] tails;
+
+	private int[] heads;
+
+	private long[] lowerBounds;
+
+	private long[] capacities;
+
+	private long[] costs;
+
+	private int nodeCount;
+
+	private int[] nodes;
+
+	private long[] demands;
+
+	/**
+	 * The chunks parsed in parallel
+	 */
+	private ArrayList<Chunk> chunks;
+
+	/**
+	 * Number of bytes and arcs of the chunks parsed so far,
+	 * which estimate the number of arcs of the next chunks
+	 */
+	private long chunkBytes;
+
+	private long chunkArcs;
+
+	/**
+	 * The window being parsed and the current position in it
+	 */
+	private ByteBuffer buffer;
+
+	private int position;
+
+	private int lineStart;
+
+	DimacsParser() {}
+
+	/**
+	 * Creates a parser for a chunk of a window after the problem line.
+	 */
+	private DimacsParser(ByteBuffer buffer, int numberOfVertices, int capacity) {
+		this.buffer = buffer;
+		this.numberOfVertices = numberOfVertices;
+		problemFound = true;
+		tails = new int[capacity];
+		heads = new int[capacity];
+		lowerBounds = new long[capacity];
+		capacities = new long[capacity];
+		costs = new long[capacity];
+		nodes = new int[16];
+		demands = new long[16];
+	}
+
+	/**
+	 * Reads a file into an arc store.
+	 * @param windowSize The maximal size of a mapped window.
+	 * @param pool The pool parsing the chunks, or <code>null</code> to parse sequentially.
+	 * @param chunkSize The minimal size of a chunk.
+	 */
+	ArcStore parseFile(String fileName, int windowSize, ForkJoinPool pool, int chunkSize)
+			throws NetworkReaderException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return parseFile(channel, fileName, windowSize, pool, chunkSize);
+		} catch (NoSuchFileException e) {
+			throw new NetworkReaderException("File not found: " + fileName);
+		} catch (IOException e) {
+			throw new NetworkReaderException("Error while reading file: " + fileName);
+		}
+	}
+
+	/**
+	 * Reads an opened file into an arc store.
+	 */
+	ArcStore parseFile(FileChannel channel, String fileName, int windowSize, ForkJoinPool pool, int chunkSize)
+			throws NetworkReaderException {
+		try {
+			long size = channel.size();
+			long offset = 0;
+			while (offset < size) {
+				long length = Math.min(windowSize, size - offset);
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+				boolean last = offset + length == size;
+				int end = (int) length;
+				if (!last) {
+					// the window ends after its last line break
+					while (end > 0 && buffer.get(end-1) != '\n') {
+						end--;
+					}
+					if (end == 0) {
+						throw new NetworkReaderException("Line longer than " + windowSize + " bytes");
+					}
+				}
+				parseWindow(end, pool, chunkSize);
+				offset += end;
+			}
+		} catch (IOException e) {
+			throw new NetworkReaderException("Error while reading file: " + fileName);
+		}
+		if (chunks != null) {
+			mergeChunks();
+		}
+		return finish();
+	}
+
+	/**
+	 * Reads a stream into an arc store. The stream is read into blocks ending at a line break
+	 * by a separate thread, which runs ahead of the parser by at most the given number of blocks.
+	 * @param in The stream, which is not closed.
+	 * @param name The name of the stream in the error messages.
+	 * @param pool The pool parsing the chunks, or <code>null</code> to parse sequentially.
+	 * @param chunkSize The minimal size of a chunk.
+	 * @param blockSize The size of a block, the maximal length of a line.
+	 * @param numberOfBlocks The number of blocks read ahead.
+	 */
+	ArcStore parseStream(InputStream in, String name, ForkJoinPool pool, int chunkSize, int blockSize,
+			int numberOfBlocks) throws NetworkReaderException {
+		BlockReader reader = new BlockReader(in, blockSize, numberOfBlocks);
+		Thread thread = new Thread(reader, "DimacsParser reader");
+		thread.setDaemon(true);
+		thread.start();
+		try {
+			while (true) {
+				ByteBuffer block = reader.full.take();
+				if (block == END_OF_STREAM) {
+					break;
+				}
+				buffer = block;
+				parseWindow(block.limit(), pool, chunkSize);
+				buffer = null;
+				block.clear();
+				reader.free.put(block);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NetworkReaderException("Interrupted while reading: " + name);
+		} finally {
+			// stops the reader if the parser failed
+			thread.interrupt();
+		}
+		if (reader.lineTooLong) {
+			throw new NetworkReaderException("Line longer than " + blockSize + " bytes");
+		}
+		if (reader.error != null) {
+			throw new NetworkReaderException("Error while reading " + name + ": " + reader.error.getMessage());
+		}
+		if (chunks != null) {
+			mergeChunks();
+		}
+		return finish();
+	}
+
+	/**
+	 * Parses the lines of the window up to end, after the problem line in chunks on the pool.
+	 */
+	private void parseWindow(int end, ForkJoinPool pool, int chunkSize) throws NetworkReaderException {
+		int start = 0;
+		if (pool == null || !problemFound) {
+			start = parseLines(0, end, pool != null);
+		}
+		if (start < end) {
+			parseChunks(start, end, pool, chunkSize);
+		}
+	}
+
+	/**
+	 * Parses the lines of the buffer from the given position.
+	 * @param start The start of the first line to parse.
+	 * @param end The end of the last line to parse.
+	 * @param stopAfterProblem Whether to stop after the problem line.
+	 * @return The position after the last parsed line.
+	 */
+	int parseLines(int start, int end, boolean stopAfterProblem) throws NetworkReaderException {
+		position = start;
+		while (position < end) {
+			lineStart = position;
+			byte c = buffer.get(position);
+			if (c == 'a' || c == 'n' || c == 'p') {
+				position++;
+				if (position >= end || !isBlank(buffer.get(position))) {
+					skipLine(end);
+					continue;
+				}
+				if (c == 'a') {
+					parseArc(end);
+				} else if (c == 'n') {
+					parseNode(end);
+				} else {
+					parseProblem(end);
+					if (stopAfterProblem) {
+						skipLine(end);
+						return Math.min(position, end);
+					}
+				}
+			}
+			skipLine(end);
+		}
+		return end;
+	}
+
+	/**
+	 * Splits the lines from start to end into chunks ending at a line break
+	 * and parses them on the pool.
+	 */
+	private void parseChunks(int start, int end, ForkJoinPool pool, int chunkSize) {
+		if (chunks == null) {
+			chunks = new ArrayList<Chunk>();
+		}
+		int numberOfChunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), (end - start) / chunkSize));
+		ArrayList<Chunk> window = new ArrayList<Chunk>();
+		int from = start;
+		for (int i=1; i<=numberOfChunks && from < end; i++) {
+			int to = end;
+			if (i < numberOfChunks) {
+				to = Math.max(from + 1, start + (int) ((long) (end - start) * i / numberOfChunks));
+				while (to < end && buffer.get(to-1) != '\n') {
+					to++;
+				}
+			}
+			DimacsParser parser = new DimacsParser(buffer, numberOfVertices,
+					estimateNumberOfArcs(to - from, numberOfChunks));
+			window.add(new Chunk(parser, from, to));
+			from = to;
+		}
+		for (Chunk chunk : window) {
+			pool.execute(chunk);
+		}
+		for (Chunk chunk : window) {
+			chunk.join();
+			chunkBytes += chunk.to - chunk.from;
+			chunkArcs += chunk.parser.arcCount;
+		}
+		chunks.addAll(window);
+	}
+
+	/**
+	 * Estimates the number of arcs of a chunk, from the average length of the lines parsed so far
+	 * or from the problem line for the first chunks. A chunk with more arcs grows its buffers.
+	 */
+	private int estimateNumberOfArcs(int length, int numberOfChunks) {
+		long estimate;
+		if (chunkArcs > 0) {
+			estimate = length * chunkArcs / chunkBytes;
+			estimate += estimate / 8;
+		} else {
+			estimate = numberOfArcs / numberOfChunks;
+		}
+		// an arc line has at least 12 bytes
+		return (int) Math.min(length / 12, estimate) + 1;
+	}
+
+	/**
+	 * Copies the buffers of the chunks into the arc store in the order of the chunks
+	 * and throws the first error of the file.
+	 */
+	private void mergeChunks() throws NetworkReaderException {
+		for (Chunk chunk : chunks) {
+			DimacsParser parser = chunk.parser;
+			if (arcCount + (long) parser.arcCount > numberOfArcs) {
+				throw new NetworkReaderException("More than " + numberOfArcs + " arcs found");
+			}
+			if (chunk.error != null) {
+				throw chunk.error;
+			}
+			System.arraycopy(parser.tails, 0, arcs.getTails(), arcCount, parser.arcCount);
+			System.arraycopy(parser.heads, 0, arcs.getHeads(), arcCount, parser.arcCount);
+			System.arraycopy(parser.lowerBounds, 0, arcs.getLowerBounds(), arcCount, parser.arcCount);
+			System.arraycopy(parser.capacities, 0, arcs.getCapacities(), arcCount, parser.arcCount);
+			System.arraycopy(parser.costs, 0, arcs.getCosts(), arcCount, parser.arcCount);
+			arcCount += parser.arcCount;
+			for (int i=0; i<parser.nodeCount; i++) {
+				arcs.getDemands()[parser.nodes[i]] = parser.demands[i];
+			}
+		}
+		chunks = null;
+	}
+
+	/**
+	 * Checks that all arcs were found and returns the arc store.
+	 */
+	ArcStore finish() throws NetworkReaderException {
+		if (!problemFound) {
+			throw new NetworkReaderException("No problem line found");
+		}
+		if (arcCount != numberOfArcs) {
+			throw new NetworkReaderException("Expected number of edges: " + numberOfArcs + ", "
+					+ "Number of edges found: " + arcCount);
+		}
+		return arcs;
+	}
+
+	private void parseProblem(int end) throws NetworkReaderException {
+		skipBlanks(end);
+		if (problemFound) {
+			throw unexpectedLine(end, ". More than one problem line found.");
+		}
+		if (position + 3 > end || buffer.get(position) != 'm' || buffer.get(position+1) != 'i'
+				|| buffer.get(position+2) != 'n') {
+			throw unexpectedLine(end, "");
+		}
+		position += 3;
+		if (position >= end || !isBlank(buffer.get(position))) {
+			throw unexpectedLine(end, "");
+		}
+		long n = parseNumber(end);
+		long m = parseNumber(end);
+		expectLineEnd(end);
+		if (n < 0 || m < 0 || n > Integer.MAX_VALUE || m > Integer.MAX_VALUE) {
+			throw unexpectedLine(end, "");
+		}
+		numberOfVertices = (int) n;
+		numberOfArcs = (int) m;
+		arcs = new ArcStore(numberOfVertices, numberOfArcs);
+		problemFound = true;
+	}
+
+	private void parseNode(int end) throws NetworkReaderException {
+		if (!problemFound) {
+			throw new NetworkReaderException("Node descriptor line appears before any problem line");
+		}
+		int id = parseVertex(end);
+		long demand = parseNumber(end);
+		expectLineEnd(end);
+		if (arcs != null) {
+			arcs.getDemands()[id] = demand;
+			return;
+		}
+		if (nodeCount == nodes.length) {
+			nodes = Arrays.copyOf(nodes, 2*nodeCount);
+			demands = Arrays.copyOf(demands, 2*nodeCount);
+		}
+		nodes[nodeCount] = id;
+		demands[nodeCount] = demand;
+		nodeCount++;
+	}
+
+	private void parseArc(int end) throws NetworkReaderException {
+		if (!problemFound) {
+			String errMsg = "Arc descriptor line appears before any problem line or node descriptor line";
+			throw new NetworkReaderException(errMsg);
+		}
+		int v = parseVertex(end);
+		int w = parseVertex(end);
+		long low = parseNumber(end);
+		long cap = parseNumber(end);
+		long cost = parseNumber(end);
+		expectLineEnd(end);
+		if (arcs == null) {
+			if (arcCount == tails.length) {
+				int capacity = 2*arcCount;
+				tails = Arrays.copyOf(tails, capacity);
+				heads = Arrays.copyOf(heads, capacity);
+				lowerBounds = Arrays.copyOf(lowerBounds, capacity);
+				capacities = Arrays.copyOf(capacities, capacity);
+				costs = Arrays.copyOf(costs, capacity);
+			}
+			tails[arcCount] = v;
+			heads[arcCount] = w;
+			lowerBounds[arcCount] = low;
+			capacities[arcCount] = cap;
+			costs[arcCount] = cost;
+			arcCount++;
+			return;
+		}
+		if (arcCount == numberOfArcs) {
+			throw new NetworkReaderException("More than " + numberOfArcs + " arcs found");
+		}
+		arcs.getTails()[arcCount] = v;
+		arcs.getHeads()[arcCount] = w;
+		arcs.getLowerBounds()[arcCount] = low;
+		arcs.getCapacities()[arcCount] = cap;
+		arcs.getCosts()[arcCount] = cost;
+		arcCount++;
+	}
+
+	/**
+	 * Parses a vertex id and returns the index of the vertex.
+	 */
+	private int parseVertex(int end) throws NetworkReaderException {
+		long id = parseNumber(end);
+		if (id < 1 || id > numberOfVertices) {
+			throw unexpectedLine(end, ". Vertex " + id + " does not exist.");
+		}
+		return (int) id - 1;
+	}
+
+	/**
+	 * Parses a number after at least one blank.
+	 */
+	private long parseNumber(int end) throws NetworkReaderException {
+		skipBlanks(end);
+		boolean negative = false;
+		if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+			negative = buffer.get(position) == '-';
+			position++;
+		}
+		int first = position;
+		long value = 0;
+		while (position < end) {
+			int digit = buffer.get(position) - '0';
+			if (digit < 0 || digit > 9) {
+				break;
+			}
+			if (value > (Long.MAX_VALUE - digit) / 10) {
+				throw unexpectedLine(end, ". Number out of range.");
+			}
+			value = 10*value + digit;
+			position++;
+		}
+		if (position == first || (position < end && !isBlank(buffer.get(position)) && !isLineEnd(buffer.get(position)))) {
+			throw unexpectedLine(end, "");
+		}
+		return negative ? -value : value;
+	}
+
+	private void expectLineEnd(int end) throws NetworkReaderException {
+		skipBlanks(end);
+		if (position < end && !isLineEnd(buffer.get(position))) {
+			throw unexpectedLine(end, "");
+		}
+	}
+
+	private void skipBlanks(int end) {
+		while (position < end && isBlank(buffer.get(position))) {
+			position++;
+		}
+	}
+
+	private void skipLine(int end) {
+		while (position < end && buffer.get(position) != '\n') {
+			position++;
+		}
+		position++;
+	}
+
+	private static boolean isBlank(byte c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static boolean isLineEnd(byte c) {
+		return c == '\n' || c == '\r';
+	}
+
+	private NetworkReaderException unexpectedLine(int end, String detail) {
+		int lineEnd = lineStart;
+		while (lineEnd < end && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') {
+			lineEnd++;
+		}
+		byte[] line = new byte[lineEnd - lineStart];
+		for (int i=0; i<line.length; i++) {
+			line[i] = buffer.get(lineStart + i);
+		}
+		return new NetworkReaderException("Unexpected line: " + new String(line, StandardCharsets.US_ASCII) + detail);
+	}
+
+	/**
+	 * Parses the lines from (inclusive) to to (exclusive) of a window with the parser of the chunk
+	 * and keeps the first error.
+	 */
+	private static final class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final DimacsParser parser;
+
+		private final int from;
+
+		private final int to;
+
+		private NetworkReaderException error;
+
+		Chunk(DimacsParser parser, int from, int to) {
+			this.parser = parser;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			try {
+				parser.parseLines(from, to, false);
+			} catch (NetworkReaderException e) {
+				error = e;
+			}
+			parser.buffer = null;
+		}
+
+	}
+
+	/**
+	 * Reads a stream into blocks ending at a line break. The rest of the last line of a block
+	 * is moved to the start of the next block. A free block is taken before a block is read,
+	 * so the reader runs ahead of the parser by at most the number of blocks.
+	 */
+	private static final class BlockReader implements Runnable {
+
+		private final InputStream in;
+
+		private final int blockSize;
+
+		private final ArrayBlockingQueue<ByteBuffer> free;
+
+		private final ArrayBlockingQueue<ByteBuffer> full;
+
+		private volatile IOException error;
+
+		private volatile boolean lineTooLong;
+
+		BlockReader(InputStream in, int blockSize, int numberOfBlocks) {
+			this.in = in;
+			this.blockSize = blockSize;
+			free = new ArrayBlockingQueue<ByteBuffer>(numberOfBlocks);
+			full = new ArrayBlockingQueue<ByteBuffer>(numberOfBlocks + 1);
+			for (int i=0; i<numberOfBlocks; i++) {
+				free.add(ByteBuffer.allocate(blockSize));
+			}
+		}
+
+		public void run() {
+			try {
+				try {
+					ByteBuffer block = free.take();
+					int length = 0;
+					while (true) {
+						byte[] bytes = block.array();
+						int read = in.readNBytes(bytes, length, blockSize - length);
+						length += read;
+						if (length < blockSize) {
+							block.limit(length);
+							full.put(block);
+							break;
+						}
+						int end = length;
+						while (end > 0 && bytes[end-1] != '\n') {
+							end--;
+						}
+						if (end == 0) {
+							lineTooLong = true;
+							break;
+						}
+						ByteBuffer next = free.take();
+						System.arraycopy(bytes, end, next.array(), 0, length - end);
+						block.limit(end);
+						full.put(block);
+						block = next;
+						length -= end;
+					}
+				} catch (IOException e) {
+					error = e;
+				}
+				full.put(END_OF_STREAM);
+			} catch (InterruptedException e) {
+				// the parser stopped
+			}
+		}
+
+	}
+
+}
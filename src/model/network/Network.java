@@ -13,31 +13,39 @@ public class Network extends Graph {
 	
 	private HashMap<Integer, Key> vertexKeys;
 	
-	protected static Key DEMAND_KEY;
-	protected static Key LOWER_BOUND_KEY;
-	protected static Key CAPACITY_KEY;
-	protected static Key COST_KEY;
-	protected static Key FLOW_KEY;
+	// The data keys are shared by all networks and created once
+	protected static final Key DEMAND_KEY      = new Key(nextInternalId());
+	protected static final Key LOWER_BOUND_KEY = new Key(nextInternalId());
+	protected static final Key CAPACITY_KEY    = new Key(nextInternalId());
+	protected static final Key COST_KEY        = new Key(nextInternalId());
+	protected static final Key FLOW_KEY        = new Key(nextInternalId());
 
 	public Network() {
 		super();
 		setDirected(true);
 		setName("Network");
 		vertexKeys = new HashMap<Integer, Key>();
-		if (DEMAND_KEY == null) {
-			DEMAND_KEY      = addVertexData("Demand");
-			LOWER_BOUND_KEY = addEdgeData("Lower bound of capacity");
-			CAPACITY_KEY    = addEdgeData("Capacity");
-			COST_KEY        = addEdgeData("Cost");
-			FLOW_KEY        = addEdgeData("Flow");
-		}
+		addVertexData("Demand", DEMAND_KEY);
+		addEdgeData("Lower bound of capacity", LOWER_BOUND_KEY);
+		addEdgeData("Capacity", CAPACITY_KEY);
+		addEdgeData("Cost", COST_KEY);
+		addEdgeData("Flow", FLOW_KEY);
 	}
 	
-	public void addVertex(NetworkVertex v, int id) {
+	public synchronized void addVertex(NetworkVertex v, int id) {
 		super.addVertex(v);
 		vertexKeys.put(id, v.getKey());
 	}
 	
+	/**
+	 * Allocates the ids of edges created by several threads.
+	 * @param count The number of edges.
+	 * @return The first id.
+	 */
+	static long nextEdgeIds(int count) {
+		return nextInternalIds(count);
+	}
+	
 	public NetworkVertex getVertex(int id) {
 		return (NetworkVertex) getVertex(vertexKeys.get(id));
 	}
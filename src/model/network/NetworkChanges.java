@@ -0,0 +1,90 @@
+package model.network;
+
+import java.util.ArrayList;
+
+/**
+ * The NetworkChanges class collects changes of costs, bounds and demands of a network.
+ * The changes are applied to the network and to an {@link ArcStore} created from it
+ * at once, so that both describe the same network afterwards.
+ */
+public class NetworkChanges {
+
+	private static final int COST = 0;
+	private static final int LOWER_BOUND = 1;
+	private static final int CAPACITY = 2;
+	private static final int DEMAND = 3;
+
+	private ArrayList<Change> changes = new ArrayList<Change>();
+
+	public void setCost(NetworkEdge e, long value) {
+		changes.add(new Change(e, null, COST, value));
+	}
+
+	public void setLowerBound(NetworkEdge e, long value) {
+		changes.add(new Change(e, null, LOWER_BOUND, value));
+	}
+
+	public void setCapacity(NetworkEdge e, long value) {
+		changes.add(new Change(e, null, CAPACITY, value));
+	}
+
+	public void setDemand(NetworkVertex v, long value) {
+		changes.add(new Change(null, v, DEMAND, value));
+	}
+
+	public int size() {
+		return changes.size();
+	}
+
+	/**
+	 * Applies the changes to the network the arc store was created from and to the arc store.
+	 * @param arcs The arc store.
+	 */
+	public void applyTo(ArcStore arcs) {
+		for (Change c : changes) {
+			if (c.type == DEMAND) {
+				int i = arcs.indexOf(c.vertex);
+				if (i < 0) {
+					throw new IllegalArgumentException("Unknown vertex: " + c.vertex);
+				}
+				c.vertex.setDemand(c.value);
+				arcs.getDemands()[i] = c.value;
+				continue;
+			}
+			int j = arcs.indexOf(c.edge);
+			if (j < 0) {
+				throw new IllegalArgumentException("Unknown edge: " + c.edge);
+			}
+			if (c.type == COST) {
+				c.edge.setCost(c.value);
+				arcs.getCosts()[j] = c.value;
+			} else if (c.type == LOWER_BOUND) {
+				c.edge.setLowerBound(c.value);
+				arcs.getLowerBounds()[j] = c.value;
+			} else {
+				c.edge.setCapacity(c.value);
+				arcs.getCapacities()[j] = c.value;
+			}
+		}
+	}
+
+	private static class Change {
+
+		private final NetworkEdge edge;
+
+		private final NetworkVertex vertex;
+
+		private final int type;
+
+		private final long value;
+
+		private Change(NetworkEdge edge, NetworkVertex vertex, int type, long value) {
+			this.edge = edge;
+			this.vertex = vertex;
+			this.type = type;
+			this.value = value;
+		}
+
+	}
+
+}
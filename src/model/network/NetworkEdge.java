@@ -9,6 +9,10 @@ public class NetworkEdge extends Edge {
 		super(tail, head);
 	}
 	
+	NetworkEdge(NetworkVertex tail, NetworkVertex head, long id) {
+		super(tail, head, id);
+	}
+	
 	public void setFlow(long value) {
 		addData(new Data(value), Network.FLOW_KEY);
 	}
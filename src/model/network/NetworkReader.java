@@ -1,97 +1,134 @@
 package model.network;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
 
 /**
  * The NetworkReader class provides a method to create a {@link Network} object
- * described in a file.
+ * described in a file or a stream.
+ * Gzip compressed input is detected by its magic bytes and inflated while it is parsed.
  */
 public class NetworkReader {
-	
+
+	/**
+	 * Size of the buffer of the inflater
+	 */
+	private static final int INFLATER_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Reads a network from a file in the DIMACS format, see {@link DimacsParser},
+	 * from a gzip compressed DIMACS file or from a {@link NetworkSnapshot}.
+	 * @param fileName The name of the file.
+	 * @return The network, the vertex with the id i is named i.
+	 * @throws NetworkReaderException If the file cannot be read or is not a valid problem.
+	 */
 	public static Network read(String fileName) throws NetworkReaderException {
-		Network network = new Network();
+		return createNetwork(readArcStore(fileName));
+	}
+
+	/**
+	 * Reads a network from a stream in the DIMACS format, which may be gzip compressed.
+	 * @param in The stream, which is not closed.
+	 * @return The network, the vertex with the id i is named i.
+	 * @throws NetworkReaderException If the stream cannot be read or is not a valid problem.
+	 */
+	public static Network read(InputStream in) throws NetworkReaderException {
+		return createNetwork(readArcStore(in));
+	}
+
+	private static Network createNetwork(ArcStore arcs) throws NetworkReaderException {
+		Network network = arcs.toNetwork();
 		network.setSimple(true);
-		int n = 0;
-		int m = 0;
-		NetworkVertex[] nodes = null;
-		try {
-			@SuppressWarnings("resource")
-			BufferedReader br = new BufferedReader(new FileReader(fileName));
-			String line = br.readLine();
-			while (line != null) {
-				if (line.startsWith("p min ")) {
-					String[] p = line.split(" ");
-					if (p.length != 4 || n != 0) {
-						String errMsg = "Unexpected line: " + line;
-						if (n != 0) {
-							errMsg += ". More than one problem line found.";
-						}
-						throw new NetworkReaderException(errMsg);
-					}
-					n = Integer.parseInt(p[2]);
-					m = Integer.parseInt(p[3]);
-					nodes = new NetworkVertex[n+1];
-					for (int i=1; i<=n; i++) {
-						nodes[i] = new NetworkVertex();
-						network.addVertex(nodes[i], i);
-						nodes[i].setName(""+i);
-						nodes[i].setDemand(0L);
-					}
-				} else if (line.startsWith("n ")) {
-					if (nodes == null) {
-						String errMsg = "Node descriptor line appears before any problem line";
-						throw new NetworkReaderException(errMsg);
-					}
-					String[] nodeInfo = line.split(" ");
-					if (nodeInfo.length != 3) {
-						String errMsg = "Unexpected line: " + line;
-						throw new NetworkReaderException(errMsg);
-					}
-					int id = Integer.parseInt(nodeInfo[1]);
-					long demand = Long.parseLong(nodeInfo[2]);
-					nodes[id].setDemand(demand);
-				} else if (line.startsWith("a ")) {
-					if (nodes == null) {
-						String errMsg = "Arc descriptor line appears before any problem line or node descriptor line";
-						throw new NetworkReaderException(errMsg);
-					}
-					String[] arcInfo = line.split(" ");
-					int v = Integer.parseInt(arcInfo[1]);
-					int w = Integer.parseInt(arcInfo[2]);
-					long low = Long.parseLong(arcInfo[3]);
-					long cap = Long.parseLong(arcInfo[4]);
-					long cost = Long.parseLong(arcInfo[5]);
-					NetworkEdge e = new NetworkEdge(nodes[v], nodes[w]);
-					e.setLowerBound(low);
-					e.setCapacity(cap);
-					e.setCost(cost);
-					e.setFlow(0L);
-					network.addEdge(e);
-				}
-				line = br.readLine();
+		if (!network.isConsistent()) {
+			throw new NetworkReaderException("Network is not consistent");
+		}
+		return network;
+	}
+
+	/**
+	 * Reads a network from a file in the DIMACS format, from a gzip compressed DIMACS file
+	 * or from a {@link NetworkSnapshot} into primitive arrays,
+	 * which the solvers take without creating a {@link Network}.
+	 * The file is opened once, its first bytes tell the format.
+	 * @param fileName The name of the file.
+	 * @return The arc store.
+	 * @throws NetworkReaderException If the file cannot be read or is not a valid problem.
+	 */
+	public static ArcStore readArcStore(String fileName) throws NetworkReaderException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+				// a file may be read in parts
+			}
+			if (magic.position() == 4 && magic.getInt(0) == NetworkSnapshot.MAGIC) {
+				return NetworkSnapshot.load(channel, fileName).toArcStore();
+			}
+			if (magic.position() >= 2 && isGzip(magic.get(0), magic.get(1))) {
+				return readArcStore(Channels.newInputStream(channel), fileName);
 			}
-			br.close();
-		} catch (FileNotFoundException e) {
-			String errMsg = "File not found: " + fileName;
-			throw new NetworkReaderException(errMsg);
+			return DimacsParser.parse(channel, fileName);
+		} catch (NoSuchFileException e) {
+			throw new NetworkReaderException("File not found: " + fileName);
 		} catch (IOException e) {
-			String errMsg = "Error while reading file: " + fileName;
-			throw new NetworkReaderException(errMsg);
+			throw new NetworkReaderException("Error while reading file: " + fileName);
 		}
-		int numbOfEdges = network.getEdges().size();
-		if (m != numbOfEdges) {
-			String errMsg = "Expected number of edges: " + m + ", ";
-			errMsg += "Number of edges found: " + numbOfEdges;
-			throw new NetworkReaderException(errMsg);
-		}
-		if (!network.isConsistent()) {
-			String errMsg = "Network is not consistent";
-			throw new NetworkReaderException(errMsg);
+	}
+
+	/**
+	 * Reads a stream in the DIMACS format, which may be gzip compressed, into primitive arrays.
+	 * The stream is read and inflated by a separate thread while it is parsed.
+	 * @param in The stream, which is not closed.
+	 * @return The arc store.
+	 * @throws NetworkReaderException If the stream cannot be read or is not a valid problem.
+	 */
+	public static ArcStore readArcStore(InputStream in) throws NetworkReaderException {
+		return readArcStore(in, "stream");
+	}
+
+	/**
+	 * Reads a channel in the DIMACS format, which may be gzip compressed, into primitive arrays.
+	 * @param channel The channel, which is not closed.
+	 * @return The arc store.
+	 * @throws NetworkReaderException If the channel cannot be read or is not a valid problem.
+	 */
+	public static ArcStore readArcStore(ReadableByteChannel channel) throws NetworkReaderException {
+		return readArcStore(Channels.newInputStream(channel), "channel");
+	}
+
+	private static ArcStore readArcStore(InputStream in, String name) throws NetworkReaderException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		try {
+			BufferedInputStream buffered = new BufferedInputStream(in, INFLATER_BUFFER_SIZE);
+			buffered.mark(2);
+			int b0 = buffered.read();
+			int b1 = buffered.read();
+			buffered.reset();
+			InputStream input = buffered;
+			if (isGzip(b0, b1)) {
+				input = new GZIPInputStream(buffered, INFLATER_BUFFER_SIZE);
+			}
+			return DimacsParser.parse(input, name, pool.getParallelism() > 1 ? pool : null);
+		} catch (IOException e) {
+			throw new NetworkReaderException("Error while reading " + name + ": " + e.getMessage());
 		}
-		return network;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Returns whether the first two bytes are the magic bytes of gzip.
+	 */
+	private static boolean isGzip(int b0, int b1) {
+		return (b0 & 0xff) == (GZIPInputStream.GZIP_MAGIC & 0xff) && (b1 & 0xff) == GZIPInputStream.GZIP_MAGIC >> 8;
+	}
+
+}
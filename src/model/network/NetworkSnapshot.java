@@ -0,0 +1,335 @@
+package model.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import model.graph.Edge;
+import model.graph.EdgeVisitor;
+import model.graph.Key;
+
+/**
+ * The NetworkSnapshot class stores a network in a binary file, which is loaded much faster
+ * than a DIMACS file.
+ * <p>
+ * The file starts with a header of 32 bytes: the magic number {@link #MAGIC}, the version,
+ * the flags, 4 unused bytes, the number of vertices n and the number of arcs m as long.
+ * It is followed by the columns demand[n], tail[m], head[m], lower[m], capacity[m] and cost[m].
+ * Every column starts at a multiple of 8 bytes. The demands are longs, the tails and the heads
+ * are the indices of the vertices as ints. The lower bounds, the capacities and the costs are
+ * longs, or ints if the flag {@link #INT_DATA} is set. All numbers are little-endian.
+ * <p>
+ * A snapshot is loaded by mapping every column of the file, no number is parsed.
+ * The columns are read from the mapping, {@link #toArcStore()} copies them into an arc store.
+ */
+public class NetworkSnapshot {
+
+	/**
+	 * The bytes "VNSX" read as a little-endian int
+	 */
+	public static final int MAGIC = 0x58534E56;
+
+	public static final int VERSION = 1;
+
+	/**
+	 * Flag of the snapshots whose lower bounds, capacities and costs are stored as ints
+	 */
+	public static final int INT_DATA = 1;
+
+	private static final int HEADER_SIZE = 32;
+
+	/**
+	 * Writes an arc store into a snapshot. The arc data is stored as ints if it fits.
+	 * @param arcs The arc store.
+	 * @param fileName The name of the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(ArcStore arcs, String fileName) throws IOException {
+		int n = arcs.getNumberOfVertices();
+		int m = arcs.getNumberOfArcs();
+		int flags = arcs.fitsInInt() ? INT_DATA : 0;
+		long[] offsets = computeOffsets(computeColumnSizes(n, m, flags));
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			// the file ends with the padding of the last column
+			channel.write(ByteBuffer.allocate(1), offsets[6] - 1);
+			ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(0).putLong(n).putLong(m);
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[0], 8L*n).asLongBuffer().put(arcs.getDemands());
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[1], 4L*m).asIntBuffer().put(arcs.getTails());
+			map(channel, FileChannel.MapMode.READ_WRITE, offsets[2], 4L*m).asIntBuffer().put(arcs.getHeads());
+			long[][] data = {arcs.getLowerBounds(), arcs.getCapacities(), arcs.getCosts()};
+			for (int c=0; c<data.length; c++) {
+				if ((flags & INT_DATA) != 0) {
+					IntBuffer column = map(channel, FileChannel.MapMode.READ_WRITE, offsets[3+c], 4L*m).asIntBuffer();
+					for (int e=0; e<m; e++) {
+						column.put(e, (int) data[c][e]);
+					}
+				} else {
+					map(channel, FileChannel.MapMode.READ_WRITE, offsets[3+c], 8L*m).asLongBuffer().put(data[c]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a network into a snapshot. The vertex with the id i gets the index i-1
+	 * if the network has the ids 1 to n, as a network read from a file.
+	 * Otherwise the vertices are indexed as in {@link ArcStore#fromNetwork(Network)}.
+	 * @param network The network.
+	 * @param fileName The name of the file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(Network network, String fileName) throws IOException {
+		int n = network.getNumberOfVertices();
+		NetworkVertex[] vertices = new NetworkVertex[n];
+		for (int i=0; i<n; i++) {
+			vertices[i] = network.getVertex(i+1);
+			if (vertices[i] == null) {
+				write(ArcStore.fromNetwork(network), fileName);
+				return;
+			}
+		}
+		final HashMap<Key, Integer> index = new HashMap<Key, Integer>();
+		final ArcStore arcs = new ArcStore(n, network.getNumberOfEdges());
+		for (int i=0; i<n; i++) {
+			index.put(vertices[i].getKey(), i);
+			arcs.getDemands()[i] = vertices[i].getDemand();
+		}
+		network.forEachEdge(new EdgeVisitor() {
+			@Override
+			public void visit(int j, Edge edge) {
+				NetworkEdge e = (NetworkEdge) edge;
+				arcs.getTails()[j] = index.get(e.getTail().getKey());
+				arcs.getHeads()[j] = index.get(e.getHead().getKey());
+				arcs.getLowerBounds()[j] = e.getLowerBound();
+				arcs.getCapacities()[j] = e.getCapacity();
+				arcs.getCosts()[j] = e.getCost();
+			}
+		});
+		write(arcs, fileName);
+	}
+
+	/**
+	 * Returns whether a file starts with the magic number of a snapshot.
+	 * @param fileName The name of the file.
+	 * @return <code>false</code> if the file is no snapshot or cannot be read.
+	 */
+	public static boolean isSnapshot(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return channel.size() >= HEADER_SIZE
+					&& map(channel, FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Loads a snapshot by mapping its columns.
+	 * @param fileName The name of the file.
+	 * @return The snapshot.
+	 * @throws NetworkReaderException If the file cannot be read or is not a valid snapshot.
+	 */
+	public static NetworkSnapshot load(String fileName) throws NetworkReaderException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return load(channel, fileName);
+		} catch (NoSuchFileException e) {
+			throw new NetworkReaderException("File not found: " + fileName);
+		} catch (IOException e) {
+			throw new NetworkReaderException("Error while reading file: " + fileName);
+		}
+	}
+
+	/**
+	 * Loads a snapshot from an opened file by mapping its columns.
+	 * The mappings stay valid after the channel is closed.
+	 */
+	static NetworkSnapshot load(FileChannel channel, String fileName) throws NetworkReaderException, IOException {
+		if (channel.size() < HEADER_SIZE) {
+			throw new NetworkReaderException("Not a network snapshot: " + fileName);
+		}
+		ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt(0) != MAGIC) {
+			throw new NetworkReaderException("Not a network snapshot: " + fileName);
+		}
+		int version = header.getInt(4);
+		int flags = header.getInt(8);
+		if (version != VERSION || (flags & ~INT_DATA) != 0) {
+			throw new NetworkReaderException("Unsupported snapshot version " + version
+					+ " with flags " + flags + ": " + fileName);
+		}
+		long n = header.getLong(16);
+		long m = header.getLong(24);
+		if (n < 0 || m < 0 || n > Integer.MAX_VALUE || m > Integer.MAX_VALUE) {
+			throw new NetworkReaderException("Invalid size of the snapshot: " + fileName);
+		}
+		long[] sizes = computeColumnSizes((int) n, (int) m, flags);
+		long[] offsets = computeOffsets(sizes);
+		if (channel.size() != offsets[6]) {
+			throw new NetworkReaderException("Expected " + offsets[6] + " bytes, "
+					+ "snapshot has " + channel.size() + " bytes: " + fileName);
+		}
+		NetworkSnapshot snapshot = new NetworkSnapshot((int) n, (int) m, flags);
+		snapshot.columns = new ByteBuffer[6];
+		for (int c=0; c<6; c++) {
+			snapshot.columns[c] = map(channel, FileChannel.MapMode.READ_ONLY, offsets[c], sizes[c]);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Computes the number of bytes of every column.
+	 */
+	private static long[] computeColumnSizes(int n, int m, int flags) {
+		long dataSize = (flags & INT_DATA) != 0 ? 4L*m : 8L*m;
+		return new long[] {8L*n, 4L*m, 4L*m, dataSize, dataSize, dataSize};
+	}
+
+	/**
+	 * Computes the offsets of the columns and, as last entry, the size of the file.
+	 * The columns are padded to a multiple of 8 bytes.
+	 */
+	private static long[] computeOffsets(long[] sizes) {
+		long[] offsets = new long[sizes.length + 1];
+		offsets[0] = HEADER_SIZE;
+		for (int c=0; c<sizes.length; c++) {
+			offsets[c+1] = offsets[c] + (sizes[c] + 7 & ~7L);
+		}
+		return offsets;
+	}
+
+	/**
+	 * Maps a part of a file in little-endian order.
+	 * A column of more than 2 GB cannot be mapped.
+	 */
+	private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size)
+			throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Column of " + size + " bytes is too large to map");
+		}
+		return channel.map(mode, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private final int numberOfVertices;
+
+	private final int numberOfArcs;
+
+	private final int flags;
+
+	/**
+	 * The mapped columns demand, tail, head, lower, capacity and cost
+	 */
+	private ByteBuffer[] columns;
+
+	private NetworkSnapshot(int numberOfVertices, int numberOfArcs, int flags) {
+		this.numberOfVertices = numberOfVertices;
+		this.numberOfArcs = numberOfArcs;
+		this.flags = flags;
+	}
+
+	public int getNumberOfVertices() {
+		return numberOfVertices;
+	}
+
+	public int getNumberOfArcs() {
+		return numberOfArcs;
+	}
+
+	public int getFlags() {
+		return flags;
+	}
+
+	public boolean hasIntData() {
+		return (flags & INT_DATA) != 0;
+	}
+
+	/**
+	 * Returns the mapped demands of the vertices.
+	 * @return A view of the column.
+	 */
+	public LongBuffer getDemands() {
+		return columns[0].asLongBuffer();
+	}
+
+	/**
+	 * Returns the mapped indices of the tails of the arcs.
+	 * @return A view of the column.
+	 */
+	public IntBuffer getTails() {
+		return columns[1].asIntBuffer();
+	}
+
+	/**
+	 * Returns the mapped indices of the heads of the arcs.
+	 * @return A view of the column.
+	 */
+	public IntBuffer getHeads() {
+		return columns[2].asIntBuffer();
+	}
+
+	/**
+	 * Returns the mapped lower bounds of the arcs, 4 or 8 bytes each, see {@link #hasIntData()}.
+	 * @return The column.
+	 */
+	public ByteBuffer getLowerBounds() {
+		return columns[3].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns the mapped capacities of the arcs, 4 or 8 bytes each, see {@link #hasIntData()}.
+	 * @return The column.
+	 */
+	public ByteBuffer getCapacities() {
+		return columns[4].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns the mapped costs of the arcs, 4 or 8 bytes each, see {@link #hasIntData()}.
+	 * @return The column.
+	 */
+	public ByteBuffer getCosts() {
+		return columns[5].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Copies the columns into a new arc store, which the solvers take.
+	 * The long columns are copied in bulk.
+	 * @return The arc store, which is not linked with a network, see {@link ArcStore#toNetwork()}.
+	 * @throws NetworkReaderException If an arc has a tail or a head out of range.
+	 */
+	public ArcStore toArcStore() throws NetworkReaderException {
+		int n = numberOfVertices;
+		int m = numberOfArcs;
+		ArcStore arcs = new ArcStore(n, m);
+		getDemands().get(arcs.getDemands());
+		getTails().get(arcs.getTails());
+		getHeads().get(arcs.getHeads());
+		long[][] data = {arcs.getLowerBounds(), arcs.getCapacities(), arcs.getCosts()};
+		for (int c=0; c<data.length; c++) {
+			if (hasIntData()) {
+				IntBuffer column = columns[3+c].asIntBuffer();
+				for (int e=0; e<m; e++) {
+					data[c][e] = column.get(e);
+				}
+			} else {
+				columns[3+c].asLongBuffer().get(data[c]);
+			}
+		}
+		int[] tail = arcs.getTails();
+		int[] head = arcs.getHeads();
+		for (int e=0; e<m; e++) {
+			if (tail[e] < 0 || tail[e] >= n || head[e] < 0 || head[e] >= n) {
+				throw new NetworkReaderException("Arc " + e + " of the snapshot has a vertex out of range");
+			}
+		}
+		return arcs;
+	}
+
+}
@@ -1,25 +1,48 @@
 package model.network;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import model.graph.Edge;
 
+/**
+ * The NetworkSolutionWriter class writes the flows of a network into a file.
+ * The first line is the total cost, every further line holds the names of the tail and the head
+ * and the flow of an edge.
+ * <p>
+ * The lines are formatted directly into a byte block while the cost is summed up,
+ * so the edges are visited once. The block is written to a file channel whenever it is full,
+ * so the memory does not grow with the output. The lines are written behind a slot reserved
+ * for the longest cost line. After the pass the cost line is written at the start of the file
+ * and the lines are moved up to it through the same block, so no gap remains.
+ * A writer reuses its block for the next write.
+ */
 public class NetworkSolutionWriter {
-	
+
+	private static final int BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * Maximal length of a formatted number
+	 */
+	private static final int NUMBER_LENGTH = 20;
+
+	/**
+	 * Length of the slot reserved for the cost line: the longest number and a line break
+	 */
+	private static final int HEADER_LENGTH = NUMBER_LENGTH + 1;
+
+	/**
+	 * Writes the flows of all edges of a network into a file.
+	 * @param network The network.
+	 * @param fileName The name of the file.
+	 */
 	public static void write(Network network, String fileName) {
 		try {
-			BufferedWriter bw = new BufferedWriter(new FileWriter(fileName));
-			bw.write(network.computeTotalCost()+"\n");
-			for (Edge edge : network.getEdges()) {
-				NetworkEdge e = (NetworkEdge) edge;
-				String line = e.getTail().getName() + " " + e.getHead().getName();
-				line += " " + e.getFlow() + "\n";
-				bw.write(line);
-			}
-			bw.flush();
-			bw.close();
+			new NetworkSolutionWriter().writeSolution(network, fileName);
 		} catch (IOException e) {
 			String errMsg = "Error while writing file: " + fileName;
 			System.err.println(errMsg);
@@ -27,4 +50,153 @@ public class NetworkSolutionWriter {
 		}
 	}
 
+	private boolean nonzeroOnly;
+
+	/**
+	 * The block of formatted lines and the position in it
+	 */
+	private byte[] block = new byte[BLOCK_SIZE];
+
+	private int position;
+
+	public boolean isNonzeroOnly() {
+		return nonzeroOnly;
+	}
+
+	/**
+	 * Sets whether only the edges with a nonzero flow are written.
+	 * The total cost is the cost of all edges.
+	 * @param nonzeroOnly <code>true</code> to skip the edges without flow.
+	 */
+	public void setNonzeroOnly(boolean nonzeroOnly) {
+		this.nonzeroOnly = nonzeroOnly;
+	}
+
+	/**
+	 * Writes the flows of a network into a file.
+	 * @param network The network.
+	 * @param fileName The name of the file.
+	 * @return The total cost of the flows.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public long writeSolution(Network network, String fileName) throws IOException {
+		long cost = 0;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.position(HEADER_LENGTH);
+			position = 0;
+			for (Edge edge : network.getEdges()) {
+				NetworkEdge e = (NetworkEdge) edge;
+				long flow = e.getFlow();
+				if (flow == 0 && nonzeroOnly) {
+					continue;
+				}
+				cost += e.getCost()*flow;
+				String tail = e.getTail().getName();
+				String head = e.getHead().getName();
+				// a character of a name has at most 3 bytes
+				int length = 3*(tail.length() + head.length()) + NUMBER_LENGTH + 3;
+				if (position + length > block.length) {
+					flush(channel, length);
+				}
+				putName(tail);
+				block[position++] = ' ';
+				putName(head);
+				block[position++] = ' ';
+				putNumber(flow);
+				block[position++] = '\n';
+			}
+			flush(channel, 0);
+			byte[] header = (cost + "\n").getBytes(StandardCharsets.US_ASCII);
+			moveLines(channel, HEADER_LENGTH - header.length);
+			ByteBuffer buffer = ByteBuffer.wrap(header);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, buffer.position());
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * Moves the lines behind the slot of the cost line towards the start of the file
+	 * by the given number of bytes and cuts off the end of the file.
+	 */
+	private void moveLines(FileChannel channel, int shift) throws IOException {
+		if (shift == 0) {
+			return;
+		}
+		long end = channel.position();
+		for (long from=HEADER_LENGTH; from<end; ) {
+			ByteBuffer buffer = ByteBuffer.wrap(block, 0, (int) Math.min(block.length, end - from));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, from + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of file");
+				}
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, from - shift + buffer.position());
+			}
+			from += buffer.limit();
+		}
+		channel.truncate(end - shift);
+	}
+
+	/**
+	 * Writes the filled part of the block to the channel and starts over.
+	 * The block is enlarged if it has no room for the given number of bytes.
+	 */
+	private void flush(FileChannel channel, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(block, 0, position);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		position = 0;
+		if (length > block.length) {
+			block = new byte[length];
+		}
+	}
+
+	/**
+	 * Appends a name, whose characters are ASCII in the usual case.
+	 */
+	private void putName(String name) {
+		int length = name.length();
+		for (int i=0; i<length; i++) {
+			char c = name.charAt(i);
+			if (c >= 0x80) {
+				byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+				System.arraycopy(bytes, 0, block, position - i, bytes.length);
+				position += bytes.length - i;
+				return;
+			}
+			block[position++] = (byte) c;
+		}
+	}
+
+	/**
+	 * Appends the decimal digits of a number.
+	 */
+	private void putNumber(long value) {
+		if (value == Long.MIN_VALUE) {
+			byte[] bytes = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+			System.arraycopy(bytes, 0, block, position, bytes.length);
+			position += bytes.length;
+			return;
+		}
+		if (value < 0) {
+			block[position++] = '-';
+			value = -value;
+		}
+		int end = position + 1;
+		for (long v = value/10; v > 0; v /= 10) {
+			end++;
+		}
+		position = end;
+		do {
+			block[--end] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value > 0);
+	}
+
 }
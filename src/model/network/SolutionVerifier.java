@@ -0,0 +1,187 @@
+package model.network;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The SolutionVerifier class checks a flow in time O(n + m) and returns a {@link Certificate}.
+ * <p>
+ * It checks the bounds of every arc, the flow conservation at every vertex against its demand
+ * and, if vertex potentials are given, the complementary slackness conditions.
+ * The reduced cost of an arc (u,v) is cost(u,v) - potential(u) + potential(v),
+ * as in the network simplex method.
+ * Networks with at least {@link #getParallelThreshold()} arcs are checked in parallel
+ * over chunks of arcs.
+ */
+public class SolutionVerifier {
+
+	/**
+	 * Default number of arcs from which the arcs are checked in parallel
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Checks the flows stored in the edges of a network.
+	 * @param network The network.
+	 * @param potentials The potentials of the vertices in the order of {@link ArcStore#fromNetwork(Network)},
+	 *                   or <code>null</code> to check the feasibility only.
+	 * @return The certificate.
+	 */
+	public static Certificate verify(Network network, long[] potentials) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		NetworkEdge[] edges = arcs.getEdges();
+		long[] flow = new long[edges.length];
+		for (int e=0; e<edges.length; e++) {
+			flow[e] = edges[e].getFlow();
+		}
+		return new SolutionVerifier().verify(arcs, flow, potentials);
+	}
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool used for the parallel check, the common pool by default.
+	 * @param pool The pool.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Checks a flow on an arc store.
+	 * @param arcs The arc store.
+	 * @param flow The flow of every arc, further entries are ignored.
+	 * @param potentials The potentials of the vertices, further entries are ignored,
+	 *                   or <code>null</code> to check the feasibility only.
+	 * @return The certificate.
+	 */
+	public Certificate verify(ArcStore arcs, long[] flow, long[] potentials) {
+		int n = arcs.getNumberOfVertices();
+		int m = arcs.getNumberOfArcs();
+		Certificate certificate;
+		long[] balance;
+		if (m < parallelThreshold) {
+			balance = new long[n];
+			certificate = new Chunk(arcs, flow, potentials, balance, null, 0, m).compute();
+		} else {
+			AtomicLongArray sharedBalance = new AtomicLongArray(n);
+			certificate = pool.invoke(new Chunk(arcs, flow, potentials, null, sharedBalance, 0, m));
+			balance = new long[n];
+			for (int v=0; v<n; v++) {
+				balance[v] = sharedBalance.get(v);
+			}
+		}
+		certificate.numberOfVertices = n;
+		certificate.numberOfArcs = m;
+		certificate.slacknessChecked = potentials != null;
+
+		// balance[v] is the flow leaving v minus the flow entering v
+		long[] demand = arcs.getDemands();
+		for (int v=0; v<n; v++) {
+			if (balance[v] != demand[v]) {
+				if (certificate.conservationViolations == 0) {
+					certificate.firstConservationViolation = v;
+				}
+				certificate.conservationViolations++;
+			}
+		}
+		return certificate;
+	}
+
+	/**
+	 * Checks the arcs from (inclusive) to to (exclusive) and adds their flows to the balances.
+	 * Ranges larger than a chunk are split in two halves, which are checked in parallel.
+	 */
+	private static final class Chunk extends RecursiveTask<Certificate> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ArcStore arcs;
+
+		private final long[] flow;
+
+		private final long[] potentials;
+
+		private final long[] balance;
+
+		private final AtomicLongArray sharedBalance;
+
+		private final int from;
+
+		private final int to;
+
+		Chunk(ArcStore arcs, long[] flow, long[] potentials,
+				long[] balance, AtomicLongArray sharedBalance, int from, int to) {
+			this.arcs = arcs;
+			this.flow = flow;
+			this.potentials = potentials;
+			this.balance = balance;
+			this.sharedBalance = sharedBalance;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected Certificate compute() {
+			if (sharedBalance != null && to - from > CHUNK_SIZE) {
+				int mid = (from + to) >>> 1;
+				Chunk right = new Chunk(arcs, flow, potentials, null, sharedBalance, mid, to);
+				right.fork();
+				Certificate certificate = new Chunk(arcs, flow, potentials, null, sharedBalance, from, mid).compute();
+				certificate.merge(right.join());
+				return certificate;
+			}
+			int[] tail = arcs.getTails();
+			int[] head = arcs.getHeads();
+			long[] lower = arcs.getLowerBounds();
+			long[] cap = arcs.getCapacities();
+			long[] cost = arcs.getCosts();
+			Certificate certificate = new Certificate();
+			for (int e=from; e<to; e++) {
+				long x = flow[e];
+				if (x < lower[e] || x > cap[e]) {
+					if (certificate.boundViolations == 0) {
+						certificate.firstBoundViolation = e;
+					}
+					certificate.boundViolations++;
+				}
+				if (sharedBalance == null) {
+					balance[tail[e]] += x;
+					balance[head[e]] -= x;
+				} else {
+					sharedBalance.getAndAdd(tail[e], x);
+					sharedBalance.getAndAdd(head[e], -x);
+				}
+				certificate.objective += cost[e] * x;
+				if (potentials != null) {
+					long reducedCost = cost[e] - potentials[tail[e]] + potentials[head[e]];
+					if ((reducedCost > 0 && x != lower[e]) || (reducedCost < 0 && x != cap[e])) {
+						if (certificate.slacknessViolations == 0) {
+							certificate.firstSlacknessViolation = e;
+						}
+						certificate.slacknessViolations++;
+					}
+				}
+			}
+			return certificate;
+		}
+
+	}
+
+}
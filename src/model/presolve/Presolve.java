@@ -0,0 +1,519 @@
+package model.presolve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import model.MinCostFlowSolver;
+import model.network.ArcStore;
+import model.network.Network;
+import model.network.NetworkEdge;
+import model.network.NetworkVertex;
+import model.simplex.SolveStatus;
+
+/**
+ * The Presolve class reduces a network before it is solved
+ * and maps the flows of the reduced network back onto the edges of the original network.
+ * <p>
+ * The following reductions are applied until none of them changes the network:
+ * <ul>
+ * <li>An arc with equal lower bound and capacity is removed, its flow is fixed
+ * and the demands of its end vertices are adjusted.</li>
+ * <li>Parallel arcs with the same tail, head and cost are merged into one arc
+ * whose bounds are the sums of their bounds.</li>
+ * <li>A vertex without demand with one incoming and one outgoing arc is removed,
+ * the two arcs in series are collapsed into one arc with the sum of their costs.</li>
+ * <li>A vertex with one arc is removed, the arc carries its demand.
+ * A vertex without arcs and demand is removed.</li>
+ * </ul>
+ * A network is infeasible if the demands do not sum up to zero, a vertex with demand has no arcs,
+ * or a removed arc cannot carry the flow its reduction requires.
+ * <p>
+ * Every reduction is recorded on the postsolve stack. After the reduced network is solved,
+ * {@link #postsolve()} undoes the reductions in reverse order to compute the flows of all original edges.
+ */
+public class Presolve {
+
+	private static final int FIX = 0;
+	private static final int MERGE = 1;
+	private static final int SERIES = 2;
+
+	/**
+	 * Presolves a network, solves the reduced network and writes the flows into the original edges
+	 * if the flows of the reduced network are optimal.
+	 * @param network The network.
+	 * @param solver The solver for the reduced network.
+	 * @return The status of the solve, {@link SolveStatus#INFEASIBLE} if the presolve found the network
+	 *         infeasible, then nothing is solved.
+	 */
+	public static SolveStatus solve(Network network, MinCostFlowSolver solver) {
+		Presolve presolve = new Presolve(network);
+		presolve.reduce();
+		if (presolve.isInfeasible()) {
+			return SolveStatus.INFEASIBLE;
+		}
+		SolveStatus status = solver.solve(presolve.getReducedNetwork());
+		if (status == SolveStatus.OPTIMAL) {
+			presolve.postsolve();
+		}
+		return status;
+	}
+
+	private final ArcStore arcs;
+
+	private final int n;
+
+	private final int m;
+
+	/**
+	 * The working copy of the network data, changed by the reductions
+	 */
+	private final long[] demand;
+
+	private final int[] tail;
+
+	private final int[] head;
+
+	private final long[] lower;
+
+	private final long[] cap;
+
+	private final long[] cost;
+
+	private final boolean[] arcRemoved;
+
+	private final boolean[] vertexRemoved;
+
+	/**
+	 * Arcs incident to every vertex in forward star form,
+	 * including removed arcs and arcs whose end vertex was changed by a series reduction
+	 */
+	private final int[] first;
+
+	private final int[] incident;
+
+	private final ArrayList<Reduction> postsolveStack = new ArrayList<Reduction>();
+
+	private boolean infeasible;
+
+	private String infeasibility;
+
+	private Network reducedNetwork;
+
+	/**
+	 * Original arc of every edge of the reduced network
+	 */
+	private int[] reducedArcs;
+
+	private NetworkEdge[] reducedEdges;
+
+	private int numberOfRemovedVertices;
+
+	private int numberOfRemovedArcs;
+
+	public Presolve(Network network) {
+		arcs = ArcStore.fromNetwork(network);
+		n = arcs.getNumberOfVertices();
+		m = arcs.getNumberOfArcs();
+		demand = arcs.getDemands().clone();
+		tail = arcs.getTails().clone();
+		head = arcs.getHeads().clone();
+		lower = arcs.getLowerBounds().clone();
+		cap = arcs.getCapacities().clone();
+		cost = arcs.getCosts().clone();
+		arcRemoved = new boolean[m];
+		vertexRemoved = new boolean[n];
+		first = new int[n+1];
+		for (int e=0; e<m; e++) {
+			first[tail[e]+1]++;
+			if (head[e] != tail[e]) {
+				first[head[e]+1]++;
+			}
+		}
+		for (int v=0; v<n; v++) {
+			first[v+1] += first[v];
+		}
+		incident = new int[first[n]];
+		int[] next = Arrays.copyOf(first, n);
+		for (int e=0; e<m; e++) {
+			incident[next[tail[e]]++] = e;
+			if (head[e] != tail[e]) {
+				incident[next[head[e]]++] = e;
+			}
+		}
+	}
+
+	public boolean isInfeasible() {
+		return infeasible;
+	}
+
+	/**
+	 * Returns the reason why the network is infeasible.
+	 * @return The reason or <code>null</code> if no infeasibility was found.
+	 */
+	public String getInfeasibility() {
+		return infeasibility;
+	}
+
+	public int getNumberOfRemovedVertices() {
+		return numberOfRemovedVertices;
+	}
+
+	public int getNumberOfRemovedArcs() {
+		return numberOfRemovedArcs;
+	}
+
+	/**
+	 * Applies the reductions until none of them changes the network
+	 * and creates the reduced network.
+	 */
+	public void reduce() {
+		long sum = 0;
+		for (int v=0; v<n; v++) {
+			sum += demand[v];
+		}
+		if (sum != 0) {
+			setInfeasible("The demands sum up to " + sum);
+			return;
+		}
+		for (int e=0; e<m && !infeasible; e++) {
+			if (lower[e] == cap[e]) {
+				fixArc(e, lower[e]);
+			}
+		}
+		boolean changed = true;
+		while (changed && !infeasible) {
+			changed = mergeParallelArcs();
+			changed |= removeVertices();
+		}
+		if (!infeasible) {
+			createReducedNetwork();
+		}
+	}
+
+	private void setInfeasible(String reason) {
+		infeasible = true;
+		infeasibility = reason;
+	}
+
+	/**
+	 * Removes an arc with a fixed flow and moves the flow into the demands.
+	 */
+	private void fixArc(int e, long x) {
+		if (x < lower[e] || x > cap[e]) {
+			setInfeasible("The arc " + e + " cannot carry the flow " + x);
+			return;
+		}
+		demand[tail[e]] -= x;
+		demand[head[e]] += x;
+		removeArc(e);
+		postsolveStack.add(new Reduction(FIX, e, x));
+	}
+
+	private void removeArc(int e) {
+		arcRemoved[e] = true;
+		numberOfRemovedArcs++;
+	}
+
+	private void removeVertex(int v) {
+		vertexRemoved[v] = true;
+		numberOfRemovedVertices++;
+	}
+
+	/**
+	 * Merges the parallel arcs with equal cost. The arcs leaving a vertex
+	 * are grouped by their heads, arcs with the same head and different costs are chained.
+	 * @return <code>true</code> if arcs were merged.
+	 */
+	private boolean mergeParallelArcs() {
+		boolean changed = false;
+		int[] lastArc = new int[n];
+		int[] stamp = new int[n];
+		int[] nextArc = new int[m];
+		for (int u=0; u<n; u++) {
+			if (vertexRemoved[u]) {
+				continue;
+			}
+			for (int i=first[u]; i<first[u+1]; i++) {
+				int e = incident[i];
+				if (arcRemoved[e] || tail[e] != u) {
+					continue;
+				}
+				int v = head[e];
+				int r = stamp[v] == u + 1 ? lastArc[v] : -1;
+				while (r != -1 && cost[r] != cost[e]) {
+					r = nextArc[r];
+				}
+				if (r == -1) {
+					nextArc[e] = stamp[v] == u + 1 ? lastArc[v] : -1;
+					lastArc[v] = e;
+					stamp[v] = u + 1;
+					continue;
+				}
+				// merge e into r
+				postsolveStack.add(new Reduction(r, lower[r], cap[r], e, lower[e], cap[e]));
+				lower[r] += lower[e];
+				cap[r] = saturatedSum(cap[r], cap[e]);
+				removeArc(e);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	private static long saturatedSum(long a, long b) {
+		long sum = a + b;
+		return ((a ^ sum) & (b ^ sum)) < 0 || a == Long.MAX_VALUE || b == Long.MAX_VALUE ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * Removes the vertices with at most one arc and collapses the series arcs
+	 * of vertices without demand, until no vertex can be removed.
+	 * @return <code>true</code> if vertices were removed.
+	 */
+	private boolean removeVertices() {
+		boolean changed = false;
+		int[] queue = new int[n];
+		boolean[] queued = new boolean[n];
+		int size = 0;
+		for (int v=n-1; v>=0; v--) {
+			if (!vertexRemoved[v]) {
+				queue[size++] = v;
+				queued[v] = true;
+			}
+		}
+		int[] arcsOfVertex = new int[3];
+		while (size > 0 && !infeasible) {
+			int v = queue[--size];
+			queued[v] = false;
+			if (vertexRemoved[v]) {
+				continue;
+			}
+			// collect up to three arcs, a loop counts twice
+			int degree = 0;
+			for (int i=first[v]; i<first[v+1] && degree<3; i++) {
+				int e = incident[i];
+				if (arcRemoved[e] || (tail[e] != v && head[e] != v)) {
+					continue;
+				}
+				arcsOfVertex[degree++] = e;
+				if (tail[e] == head[e] && degree < 3) {
+					arcsOfVertex[degree++] = e;
+				}
+			}
+			int other;
+			if (degree == 0) {
+				if (demand[v] != 0) {
+					setInfeasible("The vertex " + v + " has the demand " + demand[v] + " but no arcs");
+					break;
+				}
+				removeVertex(v);
+				changed = true;
+				continue;
+			} else if (degree == 1) {
+				int e = arcsOfVertex[0];
+				other = tail[e] == v ? head[e] : tail[e];
+				fixArc(e, tail[e] == v ? demand[v] : -demand[v]);
+				if (infeasible) {
+					break;
+				}
+				removeVertex(v);
+			} else if (degree == 2 && demand[v] == 0 && arcsOfVertex[0] != arcsOfVertex[1]) {
+				int e1 = arcsOfVertex[0];
+				int e2 = arcsOfVertex[1];
+				if (head[e2] == v) {
+					int t = e1;
+					e1 = e2;
+					e2 = t;
+				}
+				if (head[e1] != v || tail[e2] != v || !collapseSeries(e1, e2)) {
+					continue;
+				}
+				if (infeasible) {
+					break;
+				}
+				removeVertex(v);
+				other = tail[e1];
+				int w = head[e1];
+				if (!queued[w]) {
+					queue[size++] = w;
+					queued[w] = true;
+				}
+			} else {
+				continue;
+			}
+			changed = true;
+			if (!queued[other]) {
+				queue[size++] = other;
+				queued[other] = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Collapses the arcs e1 = (u,v) and e2 = (v,w) into the arc e1 = (u,w).
+	 * Both arcs carry the same flow, so the bounds are intersected and the costs are added.
+	 * @return <code>false</code> if the sum of the costs does not fit into a long.
+	 */
+	private boolean collapseSeries(int e1, int e2) {
+		long c;
+		try {
+			c = Math.addExact(cost[e1], cost[e2]);
+		} catch (ArithmeticException e) {
+			return false;
+		}
+		int w = head[e2];
+		postsolveStack.add(new Reduction(SERIES, e1, e2));
+		head[e1] = w;
+		cost[e1] = c;
+		lower[e1] = Math.max(lower[e1], lower[e2]);
+		cap[e1] = Math.min(cap[e1], cap[e2]);
+		removeArc(e2);
+		// e1 takes the place of e2 in the arcs of w, unless e1 became a loop
+		for (int i=first[w]; i<first[w+1] && w != tail[e1]; i++) {
+			if (incident[i] == e2) {
+				incident[i] = e1;
+				break;
+			}
+		}
+		if (lower[e1] > cap[e1]) {
+			setInfeasible("The arcs " + e1 + " and " + e2 + " in series have disjoint bounds");
+		} else if (lower[e1] == cap[e1]) {
+			fixArc(e1, lower[e1]);
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the reduced network from the remaining vertices and arcs.
+	 * The vertices are numbered from 1 in the order of the original vertices.
+	 */
+	private void createReducedNetwork() {
+		reducedNetwork = new Network();
+		NetworkVertex[] vertices = new NetworkVertex[n];
+		int id = 1;
+		for (int v=0; v<n; v++) {
+			if (!vertexRemoved[v]) {
+				NetworkVertex reduced = new NetworkVertex();
+				reducedNetwork.addVertex(reduced, id);
+				reduced.setName(""+id);
+				reduced.setDemand(demand[v]);
+				vertices[v] = reduced;
+				id++;
+			}
+		}
+		reducedArcs = new int[m - numberOfRemovedArcs];
+		reducedEdges = new NetworkEdge[reducedArcs.length];
+		int j = 0;
+		for (int e=0; e<m; e++) {
+			if (!arcRemoved[e]) {
+				NetworkEdge reduced = new NetworkEdge(vertices[tail[e]], vertices[head[e]]);
+				reduced.setLowerBound(lower[e]);
+				reduced.setCapacity(cap[e]);
+				reduced.setCost(cost[e]);
+				reduced.setFlow(0L);
+				reducedNetwork.addEdge(reduced);
+				reducedArcs[j] = e;
+				reducedEdges[j] = reduced;
+				j++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the reduced network, which has to be solved optimally before {@link #postsolve()} is called.
+	 * @return The reduced network or <code>null</code> if the network is infeasible.
+	 */
+	public Network getReducedNetwork() {
+		return reducedNetwork;
+	}
+
+	/**
+	 * Takes the flows of the solved reduced network, undoes the reductions
+	 * and writes the flows into the edges of the original network.
+	 */
+	public void postsolve() {
+		if (reducedNetwork == null) {
+			throw new IllegalStateException("The network was not reduced");
+		}
+		long[] flow = new long[m];
+		for (int j=0; j<reducedArcs.length; j++) {
+			flow[reducedArcs[j]] = reducedEdges[j].getFlow();
+		}
+		for (int i=postsolveStack.size()-1; i>=0; i--) {
+			postsolveStack.get(i).undo(flow);
+		}
+		arcs.writeFlows(flow);
+	}
+
+	/**
+	 * A reduction on the postsolve stack.
+	 */
+	private static class Reduction {
+
+		private final int type;
+
+		/**
+		 * The arc fixed, the representative of a merge or the first arc of a series
+		 */
+		private final int arc;
+
+		/**
+		 * The arc merged into the representative or the second arc of a series
+		 */
+		private final int other;
+
+		/**
+		 * The fixed flow or the original bounds of the representative and the merged arc
+		 */
+		private final long value;
+
+		private final long lower;
+
+		private final long cap;
+
+		private final long otherLower;
+
+		private final long otherCap;
+
+		private Reduction(int type, int arc, long value) {
+			this(type, arc, -1, value, 0L, 0L, 0L, 0L);
+		}
+
+		private Reduction(int type, int arc, int other) {
+			this(type, arc, other, 0L, 0L, 0L, 0L, 0L);
+		}
+
+		private Reduction(int arc, long lower, long cap, int other, long otherLower, long otherCap) {
+			this(MERGE, arc, other, 0L, lower, cap, otherLower, otherCap);
+		}
+
+		private Reduction(int type, int arc, int other, long value,
+				long lower, long cap, long otherLower, long otherCap) {
+			this.type = type;
+			this.arc = arc;
+			this.other = other;
+			this.value = value;
+			this.lower = lower;
+			this.cap = cap;
+			this.otherLower = otherLower;
+			this.otherCap = otherCap;
+		}
+
+		private void undo(long[] flow) {
+			if (type == FIX) {
+				flow[arc] = value;
+			} else if (type == SERIES) {
+				flow[other] = flow[arc];
+			} else {
+				// both arcs get their lower bounds, the rest fills the representative first
+				long rest = flow[arc] - lower - otherLower;
+				long x = Math.min(rest, cap - lower);
+				flow[arc] = lower + x;
+				flow[other] = otherLower + rest - x;
+			}
+		}
+
+	}
+
+}
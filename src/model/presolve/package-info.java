@@ -0,0 +1,5 @@
+/**
+ * Provides the {@link model.presolve.Presolve} class, which reduces a network
+ * before it is solved and maps the solution of the reduced network back onto the original edges.
+ */
+package model.presolve;
@@ -0,0 +1,574 @@
+package model.shortestpath;
+
+import java.util.Arrays;
+
+import model.network.ArcStore;
+import model.network.Network;
+import model.simplex.SolveStatus;
+
+/**
+ * The SuccessiveShortestPath class implements the successive shortest path method
+ * with capacity scaling on a network copied into primitive arrays.
+ * <p>
+ * The vertex potentials keep the reduced costs of the residual arcs non negative,
+ * so the shortest paths are computed by Dijkstra's algorithm with a binary heap.
+ * With capacity scaling, the phase with the scaling factor delta uses only residual arcs
+ * with a capacity of at least delta and sends at least delta units along every path.
+ * At the start of a phase the arcs with enough capacity and a negative reduced cost are saturated.
+ * Capacity scaling is used by default if a supply is at least {@link #CAPACITY_SCALING_MIN_SUPPLY}.
+ * The number of shortest path computations depends on the total supply, not on the number of arcs,
+ * so the method is fast for networks with a small total supply.
+ * <p>
+ * The vertices of the network have the indices 0 to n-1, the dummy root has the index n.
+ * Every vertex is connected with the root by two artificial arcs with the cost M,
+ * so that a path from every excess to every deficit exists.
+ * The heap and label arrays are allocated once and reused by every search.
+ */
+public class SuccessiveShortestPath {
+
+	/**
+	 * Capacity of the residual arcs of arcs with infinite capacity
+	 */
+	private static final long INFINITE_CAPACITY = Long.MAX_VALUE / 2;
+
+	/**
+	 * Largest supply from which capacity scaling is used by default.
+	 * With small supplies the saturations at the start of the phases
+	 * create more excess than the scaling saves.
+	 */
+	public static final long CAPACITY_SCALING_MIN_SUPPLY = 1024;
+
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network if it is optimal.
+	 * @param network The network.
+	 * @return The status of the solve.
+	 */
+	public static SolveStatus findMinCostFlow(Network network) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		SuccessiveShortestPath solver = new SuccessiveShortestPath(arcs);
+		solver.solve();
+		if (solver.getStatus() == SolveStatus.OPTIMAL) {
+			arcs.writeFlows(solver.getFlows());
+		}
+		return solver.getStatus();
+	}
+
+	private final ArcStore arcs;
+
+	private final boolean capacityScaling;
+
+	/**
+	 * Number of vertices including the root
+	 */
+	private final int n;
+
+	/**
+	 * Number of arcs of the original network
+	 */
+	private final int numberOfRealArcs;
+
+	/**
+	 * Dummy root
+	 */
+	private final int root;
+
+	/**
+	 * Residual arcs in forward star form, the arcs leaving the vertex u
+	 * have the indices first[u] to first[u+1]-1.
+	 */
+	private final int[] first;
+
+	private final int[] target;
+
+	private final int[] reverse;
+
+	private final long[] residualCapacity;
+
+	private final long[] cost;
+
+	/**
+	 * Forward residual arc of every arc
+	 */
+	private final int[] forwardArc;
+
+	private final long[] excess;
+
+	private final long[] potential;
+
+	/**
+	 * Labels of the shortest path search
+	 */
+	private final long[] distance;
+
+	private final int[] predecessorArc;
+
+	/**
+	 * The vertex v is labelled in the current search if labelled[v] == stamp,
+	 * and it is scanned if scanned[v] == stamp.
+	 */
+	private final int[] labelled;
+
+	private final int[] scanned;
+
+	private int stamp;
+
+	/**
+	 * The scanned vertices of the current search in the order of scanning
+	 */
+	private final int[] scannedVertices;
+
+	private int numberOfScannedVertices;
+
+	/**
+	 * Binary heap of the labelled vertices ordered by distance
+	 */
+	private final int[] heap;
+
+	private final int[] heapPosition;
+
+	private int heapSize;
+
+	private final long[] flow;
+
+	private boolean unbounded;
+
+	private SolveStatus status;
+
+	private long numberOfAugmentations;
+
+	private long numberOfScans;
+
+	public SuccessiveShortestPath(ArcStore arcs) {
+		this(arcs, hasLargeSupply(arcs));
+	}
+
+	/**
+	 * Creates the residual network of an arc store.
+	 * @param arcs The arc store.
+	 * @param capacityScaling Whether the paths are computed in phases with decreasing
+	 *                        minimum capacity, otherwise all paths are computed in one phase.
+	 */
+	public SuccessiveShortestPath(ArcStore arcs, boolean capacityScaling) {
+		this.arcs = arcs;
+		this.capacityScaling = capacityScaling;
+		int n0 = arcs.getNumberOfVertices();
+		int m0 = arcs.getNumberOfArcs();
+		n = n0 + 1;
+		root = n0;
+		numberOfRealArcs = m0;
+		int m = m0 + 2*n0;
+		first = new int[n+1];
+		target = new int[2*m];
+		reverse = new int[2*m];
+		residualCapacity = new long[2*m];
+		cost = new long[2*m];
+		forwardArc = new int[m0];
+		excess = new long[n];
+		potential = new long[n];
+		distance = new long[n];
+		predecessorArc = new int[n];
+		labelled = new int[n];
+		scanned = new int[n];
+		scannedVertices = new int[n];
+		heap = new int[n];
+		heapPosition = new int[n];
+		flow = new long[m0];
+		buildResidualNetwork();
+	}
+
+	private static boolean hasLargeSupply(ArcStore arcs) {
+		long[] demand = arcs.getDemands();
+		for (int v=0; v<arcs.getNumberOfVertices(); v++) {
+			if (Math.abs(demand[v]) >= CAPACITY_SCALING_MIN_SUPPLY) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public long[] getFlows() {
+		return flow;
+	}
+
+	/**
+	 * Returns whether the arcs with infinite capacity contain a cycle with negative cost.
+	 * @return <code>true</code> if the flow is unbounded.
+	 */
+	public boolean isUnbounded() {
+		return unbounded;
+	}
+
+	/**
+	 * Returns the status of the last solve. The flow is infeasible
+	 * if an artificial arc carries flow at the end.
+	 * @return The status or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public long getNumberOfAugmentations() {
+		return numberOfAugmentations;
+	}
+
+	/**
+	 * Returns the number of vertices scanned by all shortest path searches.
+	 * @return The number of scans.
+	 */
+	public long getNumberOfScans() {
+		return numberOfScans;
+	}
+
+	/**
+	 * Creates the residual arcs. The lower bounds are shifted to zero.
+	 */
+	private void buildResidualNetwork() {
+		int n0 = root;
+		int[] tails = arcs.getTails();
+		int[] heads = arcs.getHeads();
+		long[] lower = arcs.getLowerBounds();
+		long[] capacity = arcs.getCapacities();
+		long[] costs = arcs.getCosts();
+
+		// Compute M
+		long maxCost = 0;
+		for (int e=0; e<numberOfRealArcs; e++) {
+			long c = Math.abs(costs[e]);
+			if (maxCost < c) {
+				maxCost = c;
+			}
+		}
+		long bigM = 1 + Math.round(0.5*n0*maxCost);
+
+		// Compute net demand
+		// b'(v) = b(v) - l(delta_p(v)) + l(delta_m(v))
+		System.arraycopy(arcs.getDemands(), 0, excess, 0, n0);
+		for (int e=0; e<numberOfRealArcs; e++) {
+			excess[tails[e]] -= lower[e];
+			excess[heads[e]] += lower[e];
+		}
+		long sum = 0;
+		for (int v=0; v<n0; v++) {
+			sum += excess[v];
+		}
+		excess[root] = -sum;
+
+		// The arcs 0 to m0-1 are the real arcs, the arcs m0+2v and m0+2v+1
+		// are the artificial arcs (v,root) and (root,v)
+		int m = numberOfRealArcs + 2*n0;
+		for (int e=0; e<m; e++) {
+			first[tail(e)+1]++;
+			first[head(e)+1]++;
+		}
+		for (int v=0; v<n; v++) {
+			first[v+1] += first[v];
+		}
+		int[] next = scannedVertices;
+		System.arraycopy(first, 0, next, 0, n);
+		for (int e=0; e<m; e++) {
+			int u = tail(e);
+			int v = head(e);
+			int a = next[u]++;
+			int b = next[v]++;
+			target[a] = v;
+			target[b] = u;
+			reverse[a] = b;
+			reverse[b] = a;
+			if (e < numberOfRealArcs) {
+				forwardArc[e] = a;
+				cost[a] = costs[e];
+				cost[b] = -costs[e];
+				residualCapacity[a] = capacity[e] == Long.MAX_VALUE ? INFINITE_CAPACITY : capacity[e] - lower[e];
+			} else {
+				cost[a] = bigM;
+				cost[b] = -bigM;
+				residualCapacity[a] = INFINITE_CAPACITY;
+			}
+		}
+	}
+
+	private int tail(int e) {
+		if (e < numberOfRealArcs) {
+			return arcs.getTails()[e];
+		}
+		int v = (e - numberOfRealArcs) >> 1;
+		return ((e - numberOfRealArcs) & 1) == 0 ? v : root;
+	}
+
+	private int head(int e) {
+		if (e < numberOfRealArcs) {
+			return arcs.getHeads()[e];
+		}
+		int v = (e - numberOfRealArcs) >> 1;
+		return ((e - numberOfRealArcs) & 1) == 0 ? root : v;
+	}
+
+	/**
+	 * Computes a minimum cost flow of the arc store.
+	 */
+	public void solve() {
+
+		if (!computeInitialPotentials()) {
+			unbounded = true;
+		} else {
+			long delta = 1;
+			for (int v=0; v<n; v++) {
+				delta = Math.max(delta, Math.abs(excess[v]));
+			}
+			delta = capacityScaling ? Long.highestOneBit(delta) : 1;
+
+			for (; delta>0; delta>>=1) {
+
+				// Saturate the arcs with enough capacity and negative reduced cost
+				for (int u=0; u<n; u++) {
+					for (int a=first[u]; a<first[u+1]; a++) {
+						long r = residualCapacity[a];
+						if (r >= delta && cost[a] + potential[u] - potential[target[a]] < 0) {
+							augmentArc(a, r);
+							excess[u] -= r;
+							excess[target[a]] += r;
+						}
+					}
+				}
+
+				// Send the excesses along shortest paths to the deficits
+				for (int s=0; s<n; s++) {
+					while (excess[s] >= delta) {
+						int t = findShortestPath(s, delta);
+						if (t == -1) {
+							break;
+						}
+						augmentPath(s, t);
+					}
+				}
+			}
+		}
+
+		// Shift the flows back by the lower bounds
+		long[] lower = arcs.getLowerBounds();
+		for (int e=0; e<numberOfRealArcs; e++) {
+			flow[e] = residualCapacity[reverse[forwardArc[e]]] + lower[e];
+		}
+		status = unbounded ? SolveStatus.UNBOUNDED : hasArtificialFlow() ? SolveStatus.INFEASIBLE : SolveStatus.OPTIMAL;
+	}
+
+	/**
+	 * Checks the residual arcs at the root. The forward arcs of the artificial arcs (root,v)
+	 * have the cost M, the backward arcs of the artificial arcs (v,root) have the cost -M.
+	 */
+	private boolean hasArtificialFlow() {
+		for (int a=first[root]; a<first[root+1]; a++) {
+			long x = cost[a] > 0 ? residualCapacity[reverse[a]] : residualCapacity[a];
+			if (x > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes potentials making the reduced costs of the arcs with infinite capacity
+	 * non negative, by the Bellman-Ford method on these arcs. The arcs with finite capacity
+	 * and negative reduced cost are saturated later.
+	 * @return <code>false</code> if the arcs with infinite capacity contain a negative cycle.
+	 */
+	private boolean computeInitialPotentials() {
+		boolean negative = false;
+		for (int e=0; e<numberOfRealArcs && !negative; e++) {
+			int a = forwardArc[e];
+			negative = residualCapacity[a] == INFINITE_CAPACITY && cost[a] < 0;
+		}
+		if (!negative) {
+			return true;
+		}
+		// Queue based Bellman-Ford from a virtual source connected to all vertices,
+		// a vertex entering the queue n times lies on a negative cycle
+		int[] queue = heap;
+		int[] count = heapPosition;
+		boolean[] inQueue = new boolean[n];
+		for (int v=0; v<n; v++) {
+			queue[v] = v;
+			inQueue[v] = true;
+			count[v] = 0;
+		}
+		int head = 0;
+		int size = n;
+		while (size > 0) {
+			int u = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			inQueue[u] = false;
+			for (int a=first[u]; a<first[u+1]; a++) {
+				if (residualCapacity[a] != INFINITE_CAPACITY) {
+					continue;
+				}
+				int v = target[a];
+				long d = potential[u] + cost[a];
+				if (d < potential[v]) {
+					potential[v] = d;
+					if (!inQueue[v]) {
+						if (++count[v] >= n) {
+							return false;
+						}
+						int i = head + size;
+						queue[i >= n ? i - n : i] = v;
+						inQueue[v] = true;
+						size++;
+					}
+				}
+			}
+		}
+		// d(v) <= d(u) + c(u,v), so c(u,v) + d(u) - d(v) >= 0
+		return true;
+	}
+
+	/**
+	 * Computes shortest paths from s with respect to the reduced costs
+	 * over the residual arcs with a capacity of at least delta,
+	 * until a vertex with a deficit of at least delta is scanned.
+	 * Then the potentials are updated, so that the reduced costs stay non negative
+	 * and become zero on the path.
+	 * @return The vertex with the deficit or -1 if none is reachable.
+	 */
+	private int findShortestPath(int s, long delta) {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(labelled, 0);
+			Arrays.fill(scanned, 0);
+			stamp = 1;
+		}
+		heapSize = 0;
+		numberOfScannedVertices = 0;
+		distance[s] = 0;
+		predecessorArc[s] = -1;
+		labelled[s] = stamp;
+		heapInsert(s);
+		int t = -1;
+		while (heapSize > 0) {
+			int u = heapRemoveMin();
+			scanned[u] = stamp;
+			scannedVertices[numberOfScannedVertices++] = u;
+			if (excess[u] <= -delta) {
+				t = u;
+				break;
+			}
+			long du = distance[u] + potential[u];
+			for (int a=first[u]; a<first[u+1]; a++) {
+				if (residualCapacity[a] < delta) {
+					continue;
+				}
+				int v = target[a];
+				if (scanned[v] == stamp) {
+					continue;
+				}
+				long d = du + cost[a] - potential[v];
+				if (labelled[v] != stamp) {
+					labelled[v] = stamp;
+					distance[v] = d;
+					predecessorArc[v] = a;
+					heapInsert(v);
+				} else if (d < distance[v]) {
+					distance[v] = d;
+					predecessorArc[v] = a;
+					heapDecreaseKey(v);
+				}
+			}
+		}
+		numberOfScans += numberOfScannedVertices;
+		if (t == -1) {
+			return -1;
+		}
+		// p'(u) = p(u) + min(d(u), d(t)) shifted by -d(t)
+		long dt = distance[t];
+		for (int i=0; i<numberOfScannedVertices; i++) {
+			int u = scannedVertices[i];
+			potential[u] += distance[u] - dt;
+		}
+		return t;
+	}
+
+	/**
+	 * Sends as much flow as possible along the path found from s to t.
+	 */
+	private void augmentPath(int s, int t) {
+		long delta = Math.min(excess[s], -excess[t]);
+		for (int v=t; v!=s; ) {
+			int a = predecessorArc[v];
+			delta = Math.min(delta, residualCapacity[a]);
+			v = target[reverse[a]];
+		}
+		for (int v=t; v!=s; ) {
+			int a = predecessorArc[v];
+			augmentArc(a, delta);
+			v = target[reverse[a]];
+		}
+		excess[s] -= delta;
+		excess[t] += delta;
+		numberOfAugmentations++;
+	}
+
+	private void augmentArc(int a, long delta) {
+		residualCapacity[a] -= delta;
+		residualCapacity[reverse[a]] += delta;
+	}
+
+	private void heapInsert(int v) {
+		heapPosition[v] = heapSize;
+		heap[heapSize++] = v;
+		siftUp(heapPosition[v]);
+	}
+
+	private void heapDecreaseKey(int v) {
+		siftUp(heapPosition[v]);
+	}
+
+	private int heapRemoveMin() {
+		int min = heap[0];
+		int last = heap[--heapSize];
+		if (heapSize > 0) {
+			heap[0] = last;
+			heapPosition[last] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		long d = distance[v];
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			int p = heap[parent];
+			if (distance[p] <= d) {
+				break;
+			}
+			heap[i] = p;
+			heapPosition[p] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		heapPosition[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		long d = distance[v];
+		int half = heapSize >> 1;
+		while (i < half) {
+			int child = 2*i + 1;
+			int right = child + 1;
+			if (right < heapSize && distance[heap[right]] < distance[heap[child]]) {
+				child = right;
+			}
+			int c = heap[child];
+			if (d <= distance[c]) {
+				break;
+			}
+			heap[i] = c;
+			heapPosition[c] = i;
+			i = child;
+		}
+		heap[i] = v;
+		heapPosition[v] = i;
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides the successive shortest path method working on a network
+ * copied into primitive arrays.
+ */
+package model.shortestpath;
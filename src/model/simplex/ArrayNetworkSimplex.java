@@ -0,0 +1,1305 @@
+package model.simplex;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import model.network.ArcStore;
+import model.network.Network;
+import model.network.NetworkChanges;
+
+/**
+ * The ArrayNetworkSimplex class implements the network simplex method
+ * on a network copied into primitive arrays.
+ * <p>
+ * The network is copied once into an {@link ArcStore}, the whole pivot loop
+ * runs on the arrays and the flows are written back into the edges at the end.
+ * The vertices of the network have the indices 0 to n-1, the dummy root has the index n.
+ * The arcs of the network have the indices 0 to m-1, the artificial arc
+ * between the vertex v and the root has the index m+v.
+ */
+public class ArrayNetworkSimplex {
+
+	/**
+	 * State of a non tree arc at its lower bound
+	 */
+	static final int STATE_LOWER = 1;
+
+	/**
+	 * State of a tree arc
+	 */
+	static final int STATE_TREE = 0;
+
+	/**
+	 * State of a non tree arc at its capacity
+	 */
+	static final int STATE_UPPER = -1;
+
+	/**
+	 * Default number of arcs from which block search pricing runs in parallel
+	 */
+	public static final int DEFAULT_PARALLEL_PRICING_THRESHOLD = 4000000;
+
+	public static Basis findMinCostFlow(Network network) {
+		return findMinCostFlow(network, PricingRule.BLOCK_SEARCH);
+	}
+
+	/**
+	 * Computes a minimum cost flow and stores it in the edges of the network if it is optimal,
+	 * see {@link Basis#getStatus()}.
+	 * @param network The network.
+	 * @param pricingRule The rule choosing the entering arcs.
+	 * @return The final basis, which can be used to resolve the network after changes.
+	 */
+	public static Basis findMinCostFlow(Network network, PricingRule pricingRule) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		ArrayNetworkSimplex simplex = new ArrayNetworkSimplex(arcs, pricingRule);
+		simplex.solve();
+		if (simplex.getStatus() == SolveStatus.OPTIMAL) {
+			arcs.writeFlows(simplex.flow);
+		}
+		return simplex.getBasis();
+	}
+
+	/**
+	 * Computes a minimum cost flow within the limits of the options.
+	 * The flows are stored in the edges of the network only if they are optimal,
+	 * otherwise the network is left unchanged.
+	 * @param network The network.
+	 * @param options The limits, the cancellation token and the progress listener.
+	 * @return The status of the solve.
+	 */
+	public static SolveStatus findMinCostFlow(Network network, SolveOptions options) {
+		ArcStore arcs = ArcStore.fromNetwork(network);
+		ArrayNetworkSimplex simplex = new ArrayNetworkSimplex(arcs);
+		simplex.setOptions(options);
+		simplex.solve();
+		if (simplex.getStatus() == SolveStatus.OPTIMAL) {
+			arcs.writeFlows(simplex.flow);
+		}
+		return simplex.getStatus();
+	}
+
+	/**
+	 * Applies changes of costs, bounds or demands to a network solved before
+	 * and computes a new minimum cost flow starting from the final basis of the last solve.
+	 * The flows violating their bounds after the changes are repaired first,
+	 * then the pivots continue from the repaired basis.
+	 * The flows are stored in the edges of the network only if they are optimal.
+	 * @param network The network.
+	 * @param basis The final basis of the last solve of this network.
+	 * @param changes The changes to apply.
+	 * @return The new final basis.
+	 */
+	public static Basis resolve(Network network, Basis basis, NetworkChanges changes) {
+		ArcStore arcs = basis.getArcStore();
+		if (arcs.getNetwork() != network) {
+			throw new IllegalArgumentException("The basis does not belong to the network " + network.getName());
+		}
+		changes.applyTo(arcs);
+		ArrayNetworkSimplex simplex = new ArrayNetworkSimplex(arcs);
+		simplex.solve(basis);
+		if (simplex.getStatus() == SolveStatus.OPTIMAL) {
+			arcs.writeFlows(simplex.flow);
+		}
+		return simplex.getBasis();
+	}
+
+	private final ArcStore arcs;
+
+	/**
+	 * Number of vertices including the root
+	 */
+	private final int n;
+
+	/**
+	 * Number of arcs including the artificial arcs
+	 */
+	private final int m;
+
+	/**
+	 * Number of arcs of the original network
+	 */
+	private final int numberOfRealArcs;
+
+	/**
+	 * Dummy root
+	 */
+	private final int root;
+
+	private final long[] demand;
+
+	private final int[] tail;
+
+	private final int[] head;
+
+	private final long[] lower;
+
+	private final long[] cap;
+
+	private final long[] cost;
+
+	/**
+	 * Copy of the costs read by the pricing if all costs fit into an int, otherwise <code>null</code>
+	 */
+	private int[] compactCost;
+
+	private final long[] flow;
+
+	private final long[] potential;
+
+	/**
+	 * State of an arc: {@link #STATE_LOWER} for the arcs in L,
+	 * {@link #STATE_UPPER} for the arcs in U and {@link #STATE_TREE} for the arcs in T
+	 */
+	private final int[] state;
+
+	/**
+	 * Spanning tree: tree[i] is the arc between i and p[i]
+	 */
+	private final int[] tree;
+
+	/**
+	 * Predecessor index in the tree
+	 */
+	private final int[] p;
+
+	/**
+	 * Successor index in the tree based on depth first search traversion (thread index)
+	 */
+	private final int[] s;
+
+	/**
+	 * Reverse successor index: rs[s[i]] = i
+	 */
+	private final int[] rs;
+
+	/**
+	 * Number of vertices in the subtree rooted at a vertex, including the vertex itself
+	 */
+	private final int[] succNum;
+
+	/**
+	 * Last vertex of the subtree rooted at a vertex in the order of the successor index
+	 */
+	private final int[] lastSucc;
+
+	/**
+	 * Vertices whose successor changed while the tree is updated,
+	 * their reverse successor index has to be fixed afterwards
+	 */
+	private final int[] dirty;
+
+	/**
+	 * The entering arc connects uIn in the subtree T2 with vIn in T1,
+	 * the leaving arc connects uOut in T2 with its predecessor
+	 */
+	private int uIn;
+
+	private int vIn;
+
+	private int uOut;
+
+	private int leavingArc;
+
+	/**
+	 * <code>true</code> if a cycle of unbounded capacity and negative cost was found
+	 */
+	private boolean unbounded;
+
+	/**
+	 * <code>true</code> if an artificial arc carries flow in the end
+	 */
+	private boolean infeasible;
+
+	/**
+	 * Build the initial tree from real arcs
+	 */
+	private boolean crash;
+
+	/**
+	 * Minimize the artificial flow first instead of using the big M costs
+	 */
+	private boolean twoPhase;
+
+	private final PricingRule pricingRule;
+
+	private PricingStrategy pricing;
+
+	private int parallelPricingThreshold = DEFAULT_PARALLEL_PRICING_THRESHOLD;
+
+	private ForkJoinPool pricingPool = ForkJoinPool.commonPool();
+
+	private long numberOfPivots;
+
+	private long numberOfDegeneratePivots;
+
+	/**
+	 * Measure the phases and emit flight recorder events
+	 */
+	private boolean collectingStats;
+
+	private SolverStats stats;
+
+	private PivotBatchEvent event;
+
+	private SolveOptions options = new SolveOptions();
+
+	private boolean compactStorage = true;
+
+	private SolveStatus status;
+
+	/**
+	 * Start of the current solve and the time it may run in nanoseconds
+	 */
+	private long startTime;
+
+	private long timeBudget;
+
+	public ArrayNetworkSimplex(ArcStore arcs) {
+		this(arcs, PricingRule.BLOCK_SEARCH);
+	}
+
+	public ArrayNetworkSimplex(ArcStore arcs, PricingRule pricingRule) {
+		this.arcs = arcs;
+		int n0 = arcs.getNumberOfVertices();
+		int m0 = arcs.getNumberOfArcs();
+		n = n0 + 1;
+		m = m0 + n0;
+		numberOfRealArcs = m0;
+		root = n0;
+		demand = new long[n];
+		tail = new int[m];
+		head = new int[m];
+		lower = new long[m];
+		cap = new long[m];
+		cost = new long[m];
+		flow = new long[m];
+		potential = new long[n];
+		state = new int[m];
+		tree = new int[n];
+		p = new int[n];
+		s = new int[n];
+		rs = new int[n];
+		succNum = new int[n];
+		lastSucc = new int[n];
+		dirty = new int[n];
+		this.pricingRule = pricingRule;
+	}
+
+	/**
+	 * Returns the flow of the arcs. The first m entries belong to the arcs of the original network.
+	 * @return The flow array.
+	 */
+	public long[] getFlows() {
+		return flow;
+	}
+
+	/**
+	 * Returns the vertex potentials, the last entry belongs to the root.
+	 * After an optimal solve they prove the optimality of the flows,
+	 * see {@link model.network.SolutionVerifier}.
+	 * @return The potential array.
+	 */
+	public long[] getPotentials() {
+		return potential;
+	}
+
+	public long getNumberOfPivots() {
+		return numberOfPivots;
+	}
+
+	/**
+	 * Returns the number of pivots which did not change any flow.
+	 * @return The number of degenerate pivots.
+	 */
+	public long getNumberOfDegeneratePivots() {
+		return numberOfDegeneratePivots;
+	}
+
+	/**
+	 * Returns the number of arcs including the artificial arcs.
+	 * @return The number of arcs.
+	 */
+	public int getNumberOfArcs() {
+		return m;
+	}
+
+	public int getParallelPricingThreshold() {
+		return parallelPricingThreshold;
+	}
+
+	/**
+	 * Sets the number of arcs from which {@link PricingRule#BLOCK_SEARCH}
+	 * prices the blocks in parallel. Smaller networks are priced sequentially.
+	 * @param parallelPricingThreshold The number of arcs including the artificial arcs.
+	 */
+	public void setParallelPricingThreshold(int parallelPricingThreshold) {
+		this.parallelPricingThreshold = parallelPricingThreshold;
+	}
+
+	public boolean isCrash() {
+		return crash;
+	}
+
+	/**
+	 * Sets whether the initial tree is built from real arcs, see {@link #buildCrashBasis()}.
+	 * Otherwise every vertex is connected with the root by its artificial arc.
+	 * @param crash <code>true</code> for the crash basis.
+	 */
+	public void setCrash(boolean crash) {
+		this.crash = crash;
+	}
+
+	public boolean isTwoPhase() {
+		return twoPhase;
+	}
+
+	/**
+	 * Sets whether the artificial arcs get the costs 1 and the real arcs the costs 0
+	 * in a first phase, which minimizes the artificial flow, and the real costs
+	 * in a second phase, in which the artificial arcs are closed.
+	 * Otherwise both phases are done at once with the artificial cost M.
+	 * The two phases are used anyway if M does not fit into a long.
+	 * @param twoPhase <code>true</code> for the two phase method.
+	 */
+	public void setTwoPhase(boolean twoPhase) {
+		this.twoPhase = twoPhase;
+	}
+
+	public boolean isCollectingStats() {
+		return collectingStats;
+	}
+
+	/**
+	 * Sets whether the solver measures the timings of the phases, the sizes of the subtrees T2
+	 * and the allocated bytes, and emits a {@link PivotBatchEvent} for every batch of pivots.
+	 * A solver which does not collect stats only counts the pivots and the priced arcs.
+	 * @param collectingStats <code>true</code> to collect stats.
+	 */
+	public void setCollectingStats(boolean collectingStats) {
+		this.collectingStats = collectingStats;
+	}
+
+	/**
+	 * Returns the stats of the last solve.
+	 * @return The stats or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+
+	public boolean isCompactStorage() {
+		return compactStorage;
+	}
+
+	/**
+	 * Sets whether the pricing reads the costs from an int array if all costs,
+	 * bounds and capacities of the arc store and the cost M of the artificial arcs fit into an int.
+	 * This halves the memory traffic of the costs in the pricing scans.
+	 * The potentials, the flows and the objective stay long.
+	 * @param compactStorage <code>true</code> to choose the int costs automatically, the default.
+	 */
+	public void setCompactStorage(boolean compactStorage) {
+		this.compactStorage = compactStorage;
+	}
+
+	/**
+	 * Returns whether the last solve priced with int costs.
+	 * @return <code>true</code> if the costs were compact.
+	 */
+	public boolean isCompact() {
+		return compactCost != null;
+	}
+
+	public SolveOptions getOptions() {
+		return options;
+	}
+
+	/**
+	 * Sets the limits, the cancellation token and the progress listener of the following solves.
+	 * @param options The options.
+	 */
+	public void setOptions(SolveOptions options) {
+		this.options = options;
+	}
+
+	/**
+	 * Returns the status of the last solve. If the solve stopped before the flow is optimal,
+	 * the flows are the flows of the last basis, which may include artificial flows.
+	 * @return The status or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public ForkJoinPool getPricingPool() {
+		return pricingPool;
+	}
+
+	/**
+	 * Sets the pool used for parallel pricing, the common pool by default.
+	 * @param pricingPool The pool.
+	 */
+	public void setPricingPool(ForkJoinPool pricingPool) {
+		this.pricingPool = pricingPool;
+	}
+
+	/**
+	 * Returns the current basis. After a solve it is the final basis.
+	 * @return A copy of the spanning tree and the states of the arcs.
+	 */
+	public Basis getBasis() {
+		return new Basis(arcs, state.clone(), p.clone(), tree.clone(), status);
+	}
+
+	public SolverStats solve() {
+		return solve(null);
+	}
+
+	/**
+	 * Computes a minimum cost flow starting from the given basis.
+	 * Every solve starts from the current data of the arc store,
+	 * so a solver can solve again after changes of the arc store.
+	 * @param basis A basis of a former solve of the same arc store,
+	 *              or <code>null</code> to start from the artificial tree or the crash basis.
+	 * @return The stats of the solve.
+	 */
+	public SolverStats solve(Basis basis) {
+
+		stats = new SolverStats();
+		status = null;
+		unbounded = false;
+		infeasible = false;
+		numberOfPivots = 0;
+		numberOfDegeneratePivots = 0;
+		copyArcs();
+		startTime = System.nanoTime();
+		timeBudget = options.computeTimeBudget();
+		long allocated = allocatedBytes();
+		long time = clock();
+
+		boolean bigMFits = extendNetwork();
+		compactCost = compactStorage && arcs.fitsInInt() && fitsInInt(cost) ? new int[m] : null;
+		time = measure(time, SolverStats.EXTEND);
+
+		if (basis == null && !crash) {
+			defineSpanningTreeDataStructures();
+
+			// Set the flow x
+			computeInitialFlows();
+		} else {
+			if (basis == null) {
+				// Set T, L and U from the real arcs
+				buildCrashBasis();
+			} else {
+				if (basis.getArcStore() != arcs) {
+					throw new IllegalArgumentException("The basis belongs to a different arc store");
+				}
+				System.arraycopy(basis.state, 0, state, 0, m);
+				System.arraycopy(basis.p, 0, p, 0, n);
+				System.arraycopy(basis.tree, 0, tree, 0, n);
+			}
+			// Set the flow x and fall back to artificial arcs where needed
+			repairBasis();
+		}
+		time = measure(time, SolverStats.INITIAL_FLOW);
+
+		if (twoPhase || !bigMFits) {
+			// Phase 1: minimize the flow on the artificial arcs
+			long[] realCost = Arrays.copyOf(cost, numberOfRealArcs);
+			Arrays.fill(cost, 0, numberOfRealArcs, 0L);
+			Arrays.fill(cost, numberOfRealArcs, m, 1L);
+			computePotentials();
+			measure(time, SolverStats.POTENTIALS);
+			pivot();
+			System.arraycopy(realCost, 0, cost, 0, numberOfRealArcs);
+			Arrays.fill(cost, numberOfRealArcs, m, 0L);
+			infeasible = status == null && hasArtificialFlow();
+
+			// Phase 2: close the artificial arcs out of the tree and minimize the real costs.
+			// The artificial tree arcs carry no flow and point towards the root,
+			// so every cycle through the root is degenerate and they keep their zero flow.
+			if (status == null && !infeasible) {
+				for (int e=numberOfRealArcs; e<m; e++) {
+					if (state[e] != STATE_TREE) {
+						cap[e] = 0L;
+					}
+				}
+				time = clock();
+				computePotentials();
+				measure(time, SolverStats.POTENTIALS);
+				pivot();
+				// A closed artificial arc may have moved to U, the basis keeps it at its lower bound
+				for (int e=numberOfRealArcs; e<m; e++) {
+					if (state[e] == STATE_UPPER) {
+						state[e] = STATE_LOWER;
+					}
+				}
+			}
+		} else {
+			// Set the vertex potentials
+			computePotentials();
+			measure(time, SolverStats.POTENTIALS);
+			pivot();
+			infeasible = status == null && !unbounded && hasArtificialFlow();
+		}
+		if (status == null) {
+			status = unbounded ? SolveStatus.UNBOUNDED : infeasible ? SolveStatus.INFEASIBLE : SolveStatus.OPTIMAL;
+		}
+
+		// Shift the flows back by the lower bounds
+		for (int e=0; e<m; e++) {
+			flow[e] += lower[e];
+		}
+
+		stats.numberOfPivots = numberOfPivots;
+		stats.numberOfDegeneratePivots = numberOfDegeneratePivots;
+		stats.status = status;
+		if (collectingStats) {
+			stats.allocatedBytes = allocated < 0 ? -1L : allocatedBytes() - allocated;
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns the current time if the solver collects stats, otherwise 0.
+	 */
+	private long clock() {
+		return collectingStats ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Adds the time since start to a phase if the solver collects stats.
+	 * @return The current time.
+	 */
+	private long measure(long start, int phase) {
+		if (!collectingStats) {
+			return 0L;
+		}
+		long now = System.nanoTime();
+		stats.addTime(phase, now - start);
+		return now;
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+		}
+		return -1L;
+	}
+
+	/**
+	 * Pivots while an entering arc exists, if no arc is eligible the flow is optimal.
+	 * The pivots stop early if a limit of the options is reached or the solve is cancelled,
+	 * then the status is set.
+	 */
+	private void pivot() {
+
+		if (compactCost != null) {
+			for (int e=0; e<m; e++) {
+				compactCost[e] = (int) cost[e];
+			}
+		}
+		pricing = pricingRule.create(this);
+		if (collectingStats) {
+			beginEvent();
+		}
+
+		long maxPivots = options.getMaxPivots();
+		ProgressListener listener = options.getProgressListener();
+		int progressInterval = options.getProgressInterval();
+
+		int enteringArc;
+		long time = clock();
+		while ((enteringArc = pricing.findEnteringArc()) != PricingStrategy.NONE) {
+			time = measure(time, SolverStats.PRICING);
+			if (numberOfPivots >= maxPivots) {
+				status = SolveStatus.TIME_LIMIT;
+				break;
+			}
+			if (numberOfPivots % SolveOptions.CHECK_INTERVAL == 0 && isStopped()) {
+				break;
+			}
+
+			// Find the apex w of the cycle C in T + enteringArc
+			int apex = findApexOfTheCycle(enteringArc);
+
+			// Find the leaving arc and compute epsilon
+			long epsilon = findLeavingArc(enteringArc, apex);
+			if (epsilon == Long.MAX_VALUE) {
+				unbounded = true;
+				break;
+			}
+
+			// Update the flows in cycle
+			updateFlowsInCycle(enteringArc, apex, epsilon);
+			numberOfPivots++;
+			if (epsilon == 0L) {
+				numberOfDegeneratePivots++;
+			}
+			time = measure(time, SolverStats.CYCLE);
+
+			if (leavingArc == enteringArc) {
+				// no need to change T, the entering arc moves between L and U
+				state[enteringArc] = -state[enteringArc];
+			} else {
+				// Update T, L and U
+				state[enteringArc] = STATE_TREE;
+				state[leavingArc] = flow[leavingArc] == 0L ? STATE_LOWER : STATE_UPPER;
+				if (collectingStats) {
+					stats.numberOfTreeUpdates++;
+					stats.sizeOfSubtrees += succNum[uOut];
+				}
+
+				// T splits into two subtrees, if we remove leaving arc from T
+				// Let T1 be the subtree containing the root and T2 := T \ T1
+				// Update p, s, rs, succNum and lastSucc by hanging T2 below vIn
+				updateTree(enteringArc, apex);
+				time = measure(time, SolverStats.TREE_UPDATE);
+
+				// Update vertex potentials in T2
+				updatePotentialsInSubtreeT2(enteringArc);
+				time = measure(time, SolverStats.POTENTIALS);
+			}
+
+			if (collectingStats && numberOfPivots % PivotBatchEvent.BATCH_SIZE == 0) {
+				commitEvent();
+				beginEvent();
+			}
+			if (listener != null && numberOfPivots % progressInterval == 0) {
+				listener.progress(numberOfPivots, computeObjective(), countEligibleArcs());
+			}
+		}
+		measure(time, SolverStats.PRICING);
+		stats.numberOfPricedArcs += pricing.getNumberOfPricedArcs();
+		if (collectingStats) {
+			commitEvent();
+		}
+	}
+
+	/**
+	 * Checks the deadline and the cancellation token and sets the status if the solve has to stop.
+	 * @return <code>true</code> if the solve has to stop.
+	 */
+	private boolean isStopped() {
+		CancellationToken token = options.getCancellationToken();
+		if (token != null && token.isCancelled()) {
+			status = SolveStatus.CANCELLED;
+		} else if (timeBudget != Long.MAX_VALUE && System.nanoTime() - startTime >= timeBudget) {
+			status = SolveStatus.TIME_LIMIT;
+		}
+		return status != null;
+	}
+
+	/**
+	 * Computes the cost of the current flow on the real arcs with their original costs.
+	 * @return The objective.
+	 */
+	private long computeObjective() {
+		long[] originalCost = arcs.getCosts();
+		long objective = 0L;
+		for (int e=0; e<numberOfRealArcs; e++) {
+			objective += originalCost[e] * (flow[e] + lower[e]);
+		}
+		return objective;
+	}
+
+	private int countEligibleArcs() {
+		int count = 0;
+		for (int e=0; e<m; e++) {
+			if (violation(e) < 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Starts a flight recorder event for the next batch of pivots.
+	 */
+	private void beginEvent() {
+		event = new PivotBatchEvent();
+		event.pivots = numberOfPivots;
+		event.degeneratePivots = numberOfDegeneratePivots;
+		event.pricedArcs = pricing.getNumberOfPricedArcs();
+		event.movedVertices = stats.sizeOfSubtrees;
+		event.begin();
+	}
+
+	/**
+	 * Commits the event of the current batch of pivots with the counts of the batch.
+	 */
+	private void commitEvent() {
+		event.end();
+		if (event.shouldCommit()) {
+			event.pivots = numberOfPivots - event.pivots;
+			event.degeneratePivots = numberOfDegeneratePivots - event.degeneratePivots;
+			event.pricedArcs = pricing.getNumberOfPricedArcs() - event.pricedArcs;
+			event.movedVertices = stats.sizeOfSubtrees - event.movedVertices;
+			event.commit();
+		}
+		event = null;
+	}
+
+	private boolean hasArtificialFlow() {
+		for (int e=numberOfRealArcs; e<m; e++) {
+			if (flow[e] > 0L) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isUnbounded() {
+		return unbounded;
+	}
+
+	/**
+	 * Returns whether no feasible flow exists, i.e. an artificial arc carries flow in the end.
+	 * @return <code>true</code> if the network is infeasible.
+	 */
+	public boolean isInfeasible() {
+		return infeasible;
+	}
+
+	/**
+	 * Copies the arcs and the demands of the arc store into the arrays,
+	 * which the extension and the pivots change.
+	 */
+	private void copyArcs() {
+		System.arraycopy(arcs.getDemands(), 0, demand, 0, root);
+		demand[root] = 0L;
+		System.arraycopy(arcs.getTails(), 0, tail, 0, numberOfRealArcs);
+		System.arraycopy(arcs.getHeads(), 0, head, 0, numberOfRealArcs);
+		System.arraycopy(arcs.getLowerBounds(), 0, lower, 0, numberOfRealArcs);
+		System.arraycopy(arcs.getCapacities(), 0, cap, 0, numberOfRealArcs);
+		System.arraycopy(arcs.getCosts(), 0, cost, 0, numberOfRealArcs);
+	}
+
+	/**
+	 * Extends the network by adding artificial arcs between the root and all vertices.
+	 * The lower bounds are shifted to zero, so that the flow of an arc lies between 0 and cap.
+	 * @return <code>false</code> if M is too large, so that the potentials might overflow.
+	 */
+	private boolean extendNetwork() {
+
+		// Compute M, the potentials are sums of up to n costs
+		long maxCost = 0;
+		for (int e=0; e<numberOfRealArcs; e++) {
+			long c = Math.abs(cost[e]);
+			if (maxCost < c) {
+				maxCost = c;
+			}
+		}
+		boolean bigMFits = 0.5*(n-1)*maxCost < Long.MAX_VALUE / 4;
+		long bigM = bigMFits ? 1 + Math.round(0.5*(n-1)*maxCost) : 0L;
+
+		// Compute net demand
+		// b'(v) = b(v) - l(delta_p(v)) + l(delta_m(v))
+		for (int e=0; e<numberOfRealArcs; e++) {
+			demand[tail[e]] -= lower[e];
+			demand[head[e]] += lower[e];
+			// an infinite capacity stays infinite
+			if (cap[e] != Long.MAX_VALUE) {
+				cap[e] -= lower[e];
+			}
+		}
+		for (int v=0; v<root; v++) {
+			// Depends on the net demand,
+			// add a new arc (v,root) or (root,v) to the network.
+			// An arc without flow is directed towards the root,
+			// so that the initial tree is strongly feasible.
+			int e = numberOfRealArcs + v;
+			if (demand[v] >= 0) {
+				tail[e] = v;
+				head[e] = root;
+			} else {
+				tail[e] = root;
+				head[e] = v;
+			}
+			lower[e] = 0L;
+			cap[e] = Long.MAX_VALUE;
+			cost[e] = bigM;
+		}
+		return bigMFits;
+	}
+
+	/**
+	 * Initializes T, L, U, p, s, rs, succNum and lastSucc.
+	 */
+	private void defineSpanningTreeDataStructures() {
+		for (int e=0; e<numberOfRealArcs; e++) {
+			state[e] = STATE_LOWER;
+		}
+		/*
+		 * depth first search traversal at first:
+		 * root-0-1-2-...-root
+		 * for every pair -i-j- above we set s(i) := j
+		 */
+		for (int v=0; v<root; v++) {
+			tree[v] = numberOfRealArcs + v; // the arc between v and p[v]
+			state[tree[v]] = STATE_TREE;
+			p[v] = root;
+			s[v] = v+1;
+			rs[v+1] = v;
+			succNum[v] = 1;
+			lastSucc[v] = v;
+		}
+		tree[root] = -1;
+		p[root] = -1;
+		s[root] = root > 0 ? 0 : root;
+		rs[s[root]] = root;
+		succNum[root] = n;
+		lastSucc[root] = root > 0 ? root-1 : root;
+	}
+
+	/**
+	 * Computes the initial flow in the network.
+	 */
+	private void computeInitialFlows() {
+		for (int e=0; e<numberOfRealArcs; e++) {
+			flow[e] = 0L;
+		}
+		for (int v=0; v<root; v++) {
+			int e = tree[v];
+			flow[e] = tail[e] == v ? demand[v] : -demand[v];
+		}
+	}
+
+	/**
+	 * Builds an initial tree from real arcs: a shortest path tree in which every vertex
+	 * is connected with its nearest vertex with negative demand, computed by Dijkstra's algorithm
+	 * on the reversed arcs with positive capacity. Negative costs are treated as zero.
+	 * The vertices with negative demand and the vertices which cannot reach one
+	 * are connected with the root by their artificial arcs.
+	 * The tree arcs point towards the root, so the vertex potentials are the lengths of the paths
+	 * and most non tree arcs are not eligible at the start.
+	 * The flows are computed by {@link #repairBasis()}, which replaces the tree arcs
+	 * with infeasible flows by artificial arcs.
+	 */
+	private void buildCrashBasis() {
+
+		// Incoming arcs with positive capacity of every vertex in backward star form
+		int[] first = new int[n];
+		for (int e=0; e<numberOfRealArcs; e++) {
+			if (cap[e] > 0L && tail[e] != head[e]) {
+				first[head[e]+1]++;
+			}
+		}
+		for (int v=0; v<root; v++) {
+			first[v+1] += first[v];
+		}
+		int[] incoming = new int[first[root]];
+		int[] next = Arrays.copyOf(first, root);
+		for (int e=0; e<numberOfRealArcs; e++) {
+			if (cap[e] > 0L && tail[e] != head[e]) {
+				incoming[next[head[e]]++] = e;
+			}
+			state[e] = STATE_LOWER;
+		}
+
+		// Every vertex is connected with the root until a path is found
+		for (int v=0; v<root; v++) {
+			p[v] = root;
+			tree[v] = numberOfRealArcs + v;
+			state[tree[v]] = STATE_TREE;
+		}
+		tree[root] = -1;
+		p[root] = -1;
+
+		VertexHeap heap = new VertexHeap(root);
+		boolean[] scanned = new boolean[root];
+		for (int v=0; v<root; v++) {
+			if (demand[v] < 0) {
+				heap.insertOrDecrease(v, 0L);
+			}
+		}
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			scanned[v] = true;
+			long d = heap.getKey(v);
+			if (tree[v] < numberOfRealArcs) {
+				// v is connected with p[v] by a real arc instead of its artificial arc
+				state[numberOfRealArcs + v] = STATE_LOWER;
+				state[tree[v]] = STATE_TREE;
+			}
+			for (int i=first[v]; i<first[v+1]; i++) {
+				int e = incoming[i];
+				int u = tail[e];
+				if (scanned[u] || demand[u] < 0) {
+					continue;
+				}
+				long du = d + Math.max(cost[e], 0L);
+				if (!heap.contains(u) || du < heap.getKey(u)) {
+					heap.insertOrDecrease(u, du);
+					p[u] = v;
+					tree[u] = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Takes the tree and the states of a basis and computes the flows for the current data.
+	 * <p>
+	 * The non tree arcs get the flow of their bound, the tree flows follow from the demands.
+	 * The tree is processed from the leaves upwards. If the flow on the arc between a vertex u
+	 * and its predecessor violates a bound, or u cannot send flow to its predecessor,
+	 * the arc leaves the tree at its nearest bound and the subtree of u is hung below
+	 * the root by the artificial arc of u, which carries the remaining flow.
+	 * The repaired tree is feasible and strongly feasible.
+	 */
+	private void repairBasis() {
+		buildThread();
+
+		// balance[v] is the flow v has to send to its predecessor
+		long[] balance = new long[n];
+		System.arraycopy(demand, 0, balance, 0, n);
+		for (int e=0; e<m; e++) {
+			if (state[e] != STATE_TREE) {
+				flow[e] = state[e] == STATE_UPPER ? cap[e] : 0L;
+				balance[tail[e]] -= flow[e];
+				balance[head[e]] += flow[e];
+			}
+		}
+		for (int u=rs[root]; u!=root; u=rs[u]) {
+			int e = tree[u];
+			int parent = p[u];
+			if (e < numberOfRealArcs) {
+				boolean up = tail[e] == u;
+				long f = up ? balance[u] : -balance[u];
+				boolean feasible = f >= 0 && f <= cap[e];
+				// strongly feasible: u can send a positive amount of flow to its predecessor
+				boolean strong = up ? f < cap[e] : f > 0;
+				if (feasible && strong) {
+					flow[e] = f;
+					balance[parent] += balance[u];
+					continue;
+				}
+				// remove e from the tree at its nearest bound
+				f = Math.max(0L, Math.min(f, cap[e]));
+				flow[e] = f;
+				state[e] = f == 0L ? STATE_LOWER : STATE_UPPER;
+				if (up) {
+					balance[parent] += f;
+					balance[u] -= f;
+				} else {
+					balance[parent] -= f;
+					balance[u] += f;
+				}
+				state[numberOfRealArcs + u] = STATE_TREE;
+			}
+			// the artificial arc of u carries the balance to the root
+			int a = numberOfRealArcs + u;
+			if (balance[u] >= 0) {
+				tail[a] = u;
+				head[a] = root;
+				flow[a] = balance[u];
+			} else {
+				tail[a] = root;
+				head[a] = u;
+				flow[a] = -balance[u];
+			}
+			tree[u] = a;
+			p[u] = root;
+			balance[root] += balance[u];
+		}
+		buildThread();
+	}
+
+	/**
+	 * Builds s, rs, succNum and lastSucc for the tree given by p.
+	 */
+	private void buildThread() {
+		// children lists, dirty is used as the stack
+		int[] firstChild = new int[n];
+		int[] nextSibling = new int[n];
+		Arrays.fill(firstChild, -1);
+		for (int v=0; v<n; v++) {
+			if (v != root) {
+				nextSibling[v] = firstChild[p[v]];
+				firstChild[p[v]] = v;
+			}
+		}
+		int previous = root;
+		int top = 0;
+		for (int c=firstChild[root]; c!=-1; c=nextSibling[c]) {
+			dirty[top++] = c;
+		}
+		while (top > 0) {
+			int v = dirty[--top];
+			s[previous] = v;
+			rs[v] = previous;
+			previous = v;
+			for (int c=firstChild[v]; c!=-1; c=nextSibling[c]) {
+				dirty[top++] = c;
+			}
+		}
+		s[previous] = root;
+		rs[root] = previous;
+		// the subtree sizes and last successors follow from the reverse order
+		for (int v=0; v<n; v++) {
+			succNum[v] = 1;
+			lastSucc[v] = v;
+		}
+		for (int v=rs[root]; v!=root; v=rs[v]) {
+			succNum[p[v]] += succNum[v];
+			if (lastSucc[p[v]] == p[v]) {
+				lastSucc[p[v]] = lastSucc[v];
+			}
+		}
+	}
+
+	/**
+	 * Computes the vertex potentials such that every tree arc has reduced cost zero.
+	 */
+	private void computePotentials() {
+		potential[root] = 0L;
+		for (int v=s[root]; v!=root; v=s[v]) {
+			int e = tree[v];
+			potential[v] = potential[p[v]] + (tail[e] == v ? cost[e] : -cost[e]);
+		}
+	}
+
+	/**
+	 * Returns the reduced cost of an arc with the sign chosen such that
+	 * it is negative if and only if the arc is eligible to enter the tree.
+	 * Tree arcs are never eligible.
+	 * The reduced cost is computed on demand from the vertex potentials.
+	 * @param e The arc.
+	 * @return The signed reduced cost of the arc.
+	 */
+	long violation(int e) {
+		if (compactCost != null) {
+			return state[e] * (compactCost[e] - potential[tail[e]] + potential[head[e]]);
+		}
+		return state[e] * (cost[e] - potential[tail[e]] + potential[head[e]]);
+	}
+
+	private static boolean fitsInInt(long[] values) {
+		for (int i=0; i<values.length; i++) {
+			if (values[i] != (int) values[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int findApexOfTheCycle(int enteringArc) {
+		int u = tail[enteringArc];
+		int v = head[enteringArc];
+		// A vertex with fewer successors cannot be an ancestor of the other one
+		while (u != v) {
+			if (succNum[u] < succNum[v]) {
+				u = p[u];
+			} else {
+				v = p[v];
+			}
+		}
+		return u;
+	}
+
+	/**
+	 * Finds the leaving arc by Cunningham's rule: the last blocking arc
+	 * when the cycle is traversed from the apex in the orientation of the
+	 * entering arc. This keeps the spanning tree strongly feasible, i.e.
+	 * every vertex can send a positive amount of flow to the root along
+	 * the tree, which prevents the method from cycling in degenerate pivots.
+	 * @return epsilon, the amount of flow which can be sent along the cycle,
+	 * <code>Long.MAX_VALUE</code> if the cycle consists of arcs with infinite capacity.
+	 */
+	private long findLeavingArc(int enteringArc, int apex) {
+		// The flow is sent from first to second through the entering arc
+		int first;
+		int second;
+		if (state[enteringArc] == STATE_LOWER) {
+			first = tail[enteringArc];
+			second = head[enteringArc];
+		} else {
+			first = head[enteringArc];
+			second = tail[enteringArc];
+		}
+		long epsilon = cap[enteringArc];
+		int result = 0;
+		// The path from the apex down to first is traversed before the entering arc,
+		// the path from second up to the apex after it
+		for (int u=first; u!=apex; u=p[u]) {
+			int e = tree[u];
+			long r = tail[e] == u ? flow[e] : residualCapacity(e);
+			if (r < epsilon) {
+				epsilon = r;
+				uOut = u;
+				result = 1;
+			}
+		}
+		for (int u=second; u!=apex; u=p[u]) {
+			int e = tree[u];
+			long r = tail[e] == u ? residualCapacity(e) : flow[e];
+			if (r <= epsilon) {
+				epsilon = r;
+				uOut = u;
+				result = 2;
+			}
+		}
+		if (result == 1) {
+			uIn = first;
+			vIn = second;
+		} else {
+			uIn = second;
+			vIn = first;
+		}
+		leavingArc = result == 0 ? enteringArc : tree[uOut];
+		return epsilon;
+	}
+
+	/**
+	 * Returns the amount of flow which can be added to an arc,
+	 * <code>Long.MAX_VALUE</code> if its capacity is infinite, even if it carries flow.
+	 */
+	private long residualCapacity(int e) {
+		return cap[e] == Long.MAX_VALUE ? Long.MAX_VALUE : cap[e] - flow[e];
+	}
+
+	private void updateFlowsInCycle(int enteringArc, int apex, long epsilon) {
+		if (epsilon == 0L) {
+			return;
+		}
+		long change = state[enteringArc] * epsilon;
+		flow[enteringArc] += change;
+		for (int u=tail[enteringArc]; u!=apex; u=p[u]) {
+			int e = tree[u];
+			flow[e] += tail[e] == u ? -change : change;
+		}
+		for (int u=head[enteringArc]; u!=apex; u=p[u]) {
+			int e = tree[u];
+			flow[e] += tail[e] == u ? change : -change;
+		}
+	}
+
+	/**
+	 * Removes the leaving arc from T and adds the entering arc in place.
+	 * The subtree T2 is hung below vIn and the indices are updated in place,
+	 * in time proportional to the size of T2 and the length of the cycle.
+	 */
+	private void updateTree(int enteringArc, int apex) {
+		int oldRevThread = rs[uOut];
+		int oldSuccNum = succNum[uOut];
+		int oldLastSucc = lastSucc[uOut];
+		int vOut = p[uOut];
+
+		if (uIn == uOut) {
+			// T2 keeps its root, only its position in the thread changes
+			p[uIn] = vIn;
+			tree[uIn] = enteringArc;
+			if (s[vIn] != uOut) {
+				int after = s[oldLastSucc];
+				s[oldRevThread] = after;
+				rs[after] = oldRevThread;
+				after = s[vIn];
+				s[vIn] = uOut;
+				rs[uOut] = vIn;
+				s[oldLastSucc] = after;
+				rs[after] = oldLastSucc;
+			}
+		} else {
+			// T2 is rerooted at uIn: the stem nodes between uIn and uOut
+			// change their predecessor, every stem node is moved into the
+			// thread after the subtree of the previous stem node
+			int threadContinue = oldRevThread == vIn ? s[oldLastSucc] : s[vIn];
+			int stem = uIn;
+			int parentStem = vIn;
+			int last = lastSucc[uIn];
+			int after = s[last];
+			s[vIn] = uIn;
+			int dirtyCount = 0;
+			dirty[dirtyCount++] = vIn;
+			while (stem != uOut) {
+				// Insert the next stem node into the thread
+				int nextStem = p[stem];
+				s[last] = nextStem;
+				dirty[dirtyCount++] = last;
+
+				// Remove the subtree of stem from the thread
+				int before = rs[stem];
+				s[before] = after;
+				rs[after] = before;
+
+				// Change the predecessor and shift the stem nodes
+				p[stem] = parentStem;
+				parentStem = stem;
+				stem = nextStem;
+
+				last = lastSucc[stem] == lastSucc[parentStem] ? rs[parentStem] : lastSucc[stem];
+				after = s[last];
+			}
+			p[uOut] = parentStem;
+			s[last] = threadContinue;
+			rs[threadContinue] = last;
+			lastSucc[uOut] = last;
+
+			if (oldRevThread != vIn) {
+				s[oldRevThread] = after;
+				rs[after] = oldRevThread;
+			}
+
+			for (int i=0; i<dirtyCount; i++) {
+				int u = dirty[i];
+				rs[s[u]] = u;
+			}
+
+			// Update tree, succNum and lastSucc along the stem from uOut to uIn
+			int sc = 0;
+			int ls = lastSucc[uOut];
+			for (int u=uOut, q=p[u]; u!=uIn; u=q, q=p[u]) {
+				tree[u] = tree[q];
+				sc += succNum[u] - succNum[q];
+				succNum[u] = sc;
+				lastSucc[q] = ls;
+			}
+			tree[uIn] = enteringArc;
+			succNum[uIn] = oldSuccNum;
+		}
+
+		// Update lastSucc from vIn towards the root
+		int upLimitOut = lastSucc[apex] == vIn ? apex : -1;
+		int lastSuccOut = lastSucc[uOut];
+		for (int u=vIn; u!=-1 && lastSucc[u]==vIn; u=p[u]) {
+			lastSucc[u] = lastSuccOut;
+		}
+
+		// Update lastSucc from vOut towards the root
+		if (apex != oldRevThread && vIn != oldRevThread) {
+			for (int u=vOut; u!=upLimitOut && lastSucc[u]==oldLastSucc; u=p[u]) {
+				lastSucc[u] = oldRevThread;
+			}
+		} else if (lastSuccOut != oldLastSucc) {
+			for (int u=vOut; u!=upLimitOut && lastSucc[u]==oldLastSucc; u=p[u]) {
+				lastSucc[u] = lastSuccOut;
+			}
+		}
+
+		// Update succNum from vIn and from vOut to the apex
+		for (int u=vIn; u!=apex; u=p[u]) {
+			succNum[u] += oldSuccNum;
+		}
+		for (int u=vOut; u!=apex; u=p[u]) {
+			succNum[u] -= oldSuccNum;
+		}
+	}
+
+	/**
+	 * Adds the same change to the potential of every vertex in T2,
+	 * so that the reduced cost of the entering arc becomes zero.
+	 */
+	private void updatePotentialsInSubtreeT2(int enteringArc) {
+		long change = potential[vIn] - potential[uIn];
+		change += tail[enteringArc] == uIn ? cost[enteringArc] : -cost[enteringArc];
+		int end = s[lastSucc[uIn]];
+		for (int v=uIn; v!=end; v=s[v]) {
+			potential[v] += change;
+		}
+	}
+
+}
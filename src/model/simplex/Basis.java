@@ -0,0 +1,61 @@
+package model.simplex;
+
+import model.network.ArcStore;
+
+/**
+ * The Basis class stores the spanning tree and the partition of the non tree arcs
+ * into L and U at the end of a solve of the {@link ArrayNetworkSimplex}.
+ * <p>
+ * It is used to warm start the solve of the same network after a few costs,
+ * bounds or demands changed, see
+ * {@link ArrayNetworkSimplex#resolve(model.network.Network, Basis, model.network.NetworkChanges)}.
+ * The flows, the vertex potentials and the thread indices are derived from the tree
+ * and the states, so they are recomputed for the changed data instead of being stored.
+ */
+public class Basis {
+
+	private final ArcStore arcs;
+
+	/**
+	 * State of every arc including the artificial arcs
+	 */
+	final int[] state;
+
+	/**
+	 * Predecessor index in the tree
+	 */
+	final int[] p;
+
+	/**
+	 * Spanning tree: tree[i] is the arc between i and p[i]
+	 */
+	final int[] tree;
+
+	private final SolveStatus status;
+
+	Basis(ArcStore arcs, int[] state, int[] p, int[] tree, SolveStatus status) {
+		this.arcs = arcs;
+		this.state = state;
+		this.p = p;
+		this.tree = tree;
+		this.status = status;
+	}
+
+	/**
+	 * Returns the arc store the basis refers to. Its indices are the indices of the basis.
+	 * @return The arc store.
+	 */
+	public ArcStore getArcStore() {
+		return arcs;
+	}
+
+	/**
+	 * Returns the status of the solve which ended in this basis.
+	 * The flows are stored in the network only if it is {@link SolveStatus#OPTIMAL}.
+	 * @return The status or <code>null</code> if the solver did not solve yet.
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+}
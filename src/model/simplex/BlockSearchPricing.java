@@ -0,0 +1,75 @@
+package model.simplex;
+
+/**
+ * Implements the block search pricing rule.
+ * The arcs are scanned in blocks of about sqrt(m) arcs starting at the cursor.
+ * The most violating arc of the first block containing an eligible arc enters.
+ */
+class BlockSearchPricing implements PricingStrategy {
+
+	private static final int MIN_BLOCK_SIZE = 10;
+
+	private final ArrayNetworkSimplex simplex;
+
+	private final int m;
+
+	private final int blockSize;
+
+	private int nextArc;
+
+	private long numberOfPricedArcs;
+
+	BlockSearchPricing(ArrayNetworkSimplex simplex) {
+		this.simplex = simplex;
+		m = simplex.getNumberOfArcs();
+		blockSize = Math.max((int) Math.ceil(Math.sqrt(m)), MIN_BLOCK_SIZE);
+	}
+
+	public int findEnteringArc() {
+		int enteringArc = NONE;
+		long min = 0L;
+		int count = blockSize;
+		int start = nextArc;
+		for (int e=start; e<m; e++) {
+			long c = simplex.violation(e);
+			if (c < min) {
+				min = c;
+				enteringArc = e;
+			}
+			if (--count == 0) {
+				if (min < 0) {
+					numberOfPricedArcs += e+1 - start;
+					nextArc = e+1;
+					return enteringArc;
+				}
+				count = blockSize;
+			}
+		}
+		for (int e=0; e<start; e++) {
+			long c = simplex.violation(e);
+			if (c < min) {
+				min = c;
+				enteringArc = e;
+			}
+			if (--count == 0) {
+				if (min < 0) {
+					numberOfPricedArcs += m - start + e+1;
+					nextArc = e+1;
+					return enteringArc;
+				}
+				count = blockSize;
+			}
+		}
+		numberOfPricedArcs += m;
+		// the whole range was scanned, continue after the chosen arc next time
+		if (enteringArc != NONE) {
+			nextArc = enteringArc+1 == m ? 0 : enteringArc+1;
+		}
+		return enteringArc;
+	}
+
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+}
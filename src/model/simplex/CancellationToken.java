@@ -0,0 +1,20 @@
+package model.simplex;
+
+/**
+ * A token to stop a running solve from another thread.
+ * The solver checks the token between its pivots, so the solve stops shortly after
+ * {@link #cancel()} is called and reports {@link SolveStatus#CANCELLED}.
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+}
@@ -0,0 +1,93 @@
+package model.simplex;
+
+/**
+ * Implements multiple partial pricing with a candidate list.
+ * <p>
+ * A major iteration scans the arcs from the cursor and collects eligible arcs
+ * until the list is full. The following minor iterations only examine the arcs
+ * in the list, drop the arcs which are not eligible anymore and choose the most
+ * violating one. A new major iteration starts when the list runs empty or the
+ * number of minor iterations reaches its limit.
+ */
+class CandidateListPricing implements PricingStrategy {
+
+	private static final double LIST_LENGTH_FACTOR = 0.25;
+
+	private static final int MIN_LIST_LENGTH = 10;
+
+	private static final double MINOR_LIMIT_FACTOR = 0.1;
+
+	private static final int MIN_MINOR_LIMIT = 3;
+
+	private final ArrayNetworkSimplex simplex;
+
+	private final int m;
+
+	private final int[] candidates;
+
+	private final int minorLimit;
+
+	private int numberOfCandidates;
+
+	private int minorCount;
+
+	private int nextArc;
+
+	private long numberOfPricedArcs;
+
+	CandidateListPricing(ArrayNetworkSimplex simplex) {
+		this.simplex = simplex;
+		m = simplex.getNumberOfArcs();
+		int listLength = Math.max((int) Math.ceil(LIST_LENGTH_FACTOR * Math.sqrt(m)), MIN_LIST_LENGTH);
+		candidates = new int[listLength];
+		minorLimit = Math.max((int) Math.ceil(MINOR_LIMIT_FACTOR * listLength), MIN_MINOR_LIMIT);
+	}
+
+	public int findEnteringArc() {
+		int enteringArc = NONE;
+		long min = 0L;
+		if (numberOfCandidates > 0 && minorCount < minorLimit) {
+			// Minor iteration: choose the best arc of the candidate list
+			minorCount++;
+			numberOfPricedArcs += numberOfCandidates;
+			for (int i=0; i<numberOfCandidates; i++) {
+				int e = candidates[i];
+				long c = simplex.violation(e);
+				if (c < min) {
+					min = c;
+					enteringArc = e;
+				} else if (c >= 0) {
+					// e is not eligible anymore
+					candidates[i--] = candidates[--numberOfCandidates];
+				}
+			}
+			if (enteringArc != NONE) {
+				return enteringArc;
+			}
+		}
+		// Major iteration: build a new candidate list
+		numberOfCandidates = 0;
+		int e = nextArc;
+		int i = 0;
+		for (; i<m && numberOfCandidates < candidates.length; i++) {
+			long c = simplex.violation(e);
+			if (c < 0) {
+				candidates[numberOfCandidates++] = e;
+				if (c < min) {
+					min = c;
+					enteringArc = e;
+				}
+			}
+			e = e+1 == m ? 0 : e+1;
+		}
+		nextArc = e;
+		numberOfPricedArcs += i;
+		minorCount = 1;
+		return enteringArc;
+	}
+
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+}
@@ -0,0 +1,51 @@
+package model.simplex;
+
+/**
+ * Implements Dantzig's pricing rule: every arc is examined
+ * and the arc with the most violating reduced cost enters.
+ * Ties are broken in favour of the first arc after the cursor.
+ */
+class DantzigPricing implements PricingStrategy {
+
+	private final ArrayNetworkSimplex simplex;
+
+	private final int m;
+
+	private int nextArc;
+
+	private long numberOfPricedArcs;
+
+	DantzigPricing(ArrayNetworkSimplex simplex) {
+		this.simplex = simplex;
+		m = simplex.getNumberOfArcs();
+	}
+
+	public int findEnteringArc() {
+		int enteringArc = NONE;
+		long min = 0L;
+		numberOfPricedArcs += m;
+		for (int e=nextArc; e<m; e++) {
+			long c = simplex.violation(e);
+			if (c < min) {
+				min = c;
+				enteringArc = e;
+			}
+		}
+		for (int e=0; e<nextArc; e++) {
+			long c = simplex.violation(e);
+			if (c < min) {
+				min = c;
+				enteringArc = e;
+			}
+		}
+		if (enteringArc != NONE) {
+			nextArc = enteringArc+1 == m ? 0 : enteringArc+1;
+		}
+		return enteringArc;
+	}
+
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+}
@@ -0,0 +1,45 @@
+package model.simplex;
+
+/**
+ * Implements the first eligible pricing rule.
+ */
+class FirstEligiblePricing implements PricingStrategy {
+
+	private final ArrayNetworkSimplex simplex;
+
+	private final int m;
+
+	private int nextArc;
+
+	private long numberOfPricedArcs;
+
+	FirstEligiblePricing(ArrayNetworkSimplex simplex) {
+		this.simplex = simplex;
+		m = simplex.getNumberOfArcs();
+	}
+
+	public int findEnteringArc() {
+		int start = nextArc;
+		for (int e=start; e<m; e++) {
+			if (simplex.violation(e) < 0) {
+				numberOfPricedArcs += e+1 - start;
+				nextArc = e+1;
+				return e;
+			}
+		}
+		for (int e=0; e<start; e++) {
+			if (simplex.violation(e) < 0) {
+				numberOfPricedArcs += m - start + e+1;
+				nextArc = e+1;
+				return e;
+			}
+		}
+		numberOfPricedArcs += m;
+		return NONE;
+	}
+
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+}
@@ -0,0 +1,145 @@
+package model.simplex;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implements block search pricing with the blocks priced in parallel.
+ * <p>
+ * The arcs are split into fixed chunks. Starting at the chunk of the cursor,
+ * a wave of a fixed number of chunks is priced on the pool;
+ * every chunk finds its most violating arc. The chunk results are combined
+ * in the order of the chunks after the cursor and ties are broken in favour
+ * of the earlier chunk and the smaller arc index, so the sequence of pivots
+ * does not depend on the number of threads or on their timing.
+ * If a wave contains no eligible arc, the next wave is priced.
+ */
+class ParallelBlockPricing implements PricingStrategy {
+
+	private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * Number of chunks priced together, independent of the number of threads
+	 */
+	private static final int WAVE_SIZE = 32;
+
+	private final ArrayNetworkSimplex simplex;
+
+	private final ForkJoinPool pool;
+
+	private final int m;
+
+	private final int chunkSize;
+
+	private final int numberOfChunks;
+
+	private final int waveSize;
+
+	/**
+	 * Results of the chunks of the current wave
+	 */
+	private final long[] chunkMin;
+
+	private final int[] chunkArc;
+
+	/**
+	 * First chunk of the current wave
+	 */
+	private int firstChunk;
+
+	private int nextChunk;
+
+	private long numberOfPricedArcs;
+
+	ParallelBlockPricing(ArrayNetworkSimplex simplex, ForkJoinPool pool) {
+		this.simplex = simplex;
+		this.pool = pool;
+		m = simplex.getNumberOfArcs();
+		chunkSize = Math.max((int) Math.ceil(Math.sqrt(m)), MIN_CHUNK_SIZE);
+		numberOfChunks = Math.max((m + chunkSize - 1) / chunkSize, 1);
+		waveSize = Math.min(WAVE_SIZE, numberOfChunks);
+		chunkMin = new long[waveSize];
+		chunkArc = new int[waveSize];
+	}
+
+	public int findEnteringArc() {
+		for (int scanned = 0; scanned < numberOfChunks; scanned += waveSize) {
+			firstChunk = nextChunk;
+			int size = Math.min(waveSize, numberOfChunks - scanned);
+			if (size == 1) {
+				priceChunk(0);
+			} else {
+				pool.invoke(new WaveTask(0, size));
+			}
+			nextChunk = (firstChunk + size) % numberOfChunks;
+			// Combine the chunks in a fixed order
+			int enteringArc = NONE;
+			long min = 0L;
+			for (int i=0; i<size; i++) {
+				int chunk = (firstChunk + i) % numberOfChunks;
+				numberOfPricedArcs += Math.min(chunkSize, m - chunk * chunkSize);
+				if (chunkMin[i] < min) {
+					min = chunkMin[i];
+					enteringArc = chunkArc[i];
+				}
+			}
+			if (enteringArc != NONE) {
+				return enteringArc;
+			}
+		}
+		return NONE;
+	}
+
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+	/**
+	 * Finds the most violating arc of a chunk of the current wave.
+	 * @param position The position of the chunk in the wave.
+	 */
+	private void priceChunk(int position) {
+		int chunk = (firstChunk + position) % numberOfChunks;
+		int begin = chunk * chunkSize;
+		int end = Math.min(begin + chunkSize, m);
+		long min = 0L;
+		int arc = NONE;
+		for (int e=begin; e<end; e++) {
+			long c = simplex.violation(e);
+			if (c < min) {
+				min = c;
+				arc = e;
+			}
+		}
+		chunkMin[position] = min;
+		chunkArc[position] = arc;
+	}
+
+	/**
+	 * Prices the chunks at the positions from (inclusive) to to (exclusive) of the wave.
+	 */
+	private final class WaveTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+
+		private final int to;
+
+		WaveTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from == 1) {
+				priceChunk(from);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new WaveTask(from, mid), new WaveTask(mid, to));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+package model.simplex;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event covering a batch of pivots of the {@link ArrayNetworkSimplex}.
+ * The events are only created while the solver collects stats.
+ */
+@Name("model.simplex.PivotBatch")
+@Label("Pivot Batch")
+@Category({"Network Simplex"})
+@Description("A batch of pivots of the network simplex method")
+@StackTrace(false)
+class PivotBatchEvent extends Event {
+
+	/**
+	 * Number of pivots after which an event is committed
+	 */
+	static final int BATCH_SIZE = 1024;
+
+	@Label("Pivots")
+	long pivots;
+
+	@Label("Degenerate Pivots")
+	long degeneratePivots;
+
+	@Label("Priced Arcs")
+	long pricedArcs;
+
+	@Label("Moved Vertices")
+	@Description("Sum of the sizes of the subtrees T2")
+	long movedVertices;
+
+}
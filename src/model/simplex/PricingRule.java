@@ -0,0 +1,57 @@
+package model.simplex;
+
+/**
+ * The pricing rules available for the {@link ArrayNetworkSimplex}.
+ */
+public enum PricingRule {
+
+	/**
+	 * Takes the first eligible arc after the cursor.
+	 */
+	FIRST_ELIGIBLE,
+
+	/**
+	 * Takes the arc with the most violating reduced cost among all arcs.
+	 */
+	DANTZIG,
+
+	/**
+	 * Scans the arcs in blocks of about sqrt(m) arcs
+	 * and takes the best arc of the first block containing an eligible arc.
+	 * Networks with at least {@link ArrayNetworkSimplex#getParallelPricingThreshold()}
+	 * arcs are priced with {@link #PARALLEL_BLOCK_SEARCH}.
+	 */
+	BLOCK_SEARCH,
+
+	/**
+	 * Prices blocks of arcs in parallel and takes the best arc of the first
+	 * wave of blocks containing an eligible arc. The pivots are the same
+	 * for any number of threads.
+	 */
+	PARALLEL_BLOCK_SEARCH,
+
+	/**
+	 * Multiple partial pricing: collects a list of eligible arcs in a major iteration
+	 * and chooses the best arc from this list in the following minor iterations.
+	 */
+	CANDIDATE_LIST;
+
+	PricingStrategy create(ArrayNetworkSimplex simplex) {
+		switch (this) {
+		case FIRST_ELIGIBLE:
+			return new FirstEligiblePricing(simplex);
+		case DANTZIG:
+			return new DantzigPricing(simplex);
+		case CANDIDATE_LIST:
+			return new CandidateListPricing(simplex);
+		case PARALLEL_BLOCK_SEARCH:
+			return new ParallelBlockPricing(simplex, simplex.getPricingPool());
+		default:
+			if (simplex.getNumberOfArcs() >= simplex.getParallelPricingThreshold()) {
+				return new ParallelBlockPricing(simplex, simplex.getPricingPool());
+			}
+			return new BlockSearchPricing(simplex);
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package model.simplex;
+
+/**
+ * A pricing strategy chooses the arc entering the spanning tree
+ * in a pivot of the network simplex method.
+ * <p>
+ * An arc is eligible if it is in L with negative reduced cost
+ * or in U with positive reduced cost. A strategy keeps a cursor
+ * into the arcs which wraps around, so that consecutive pivots
+ * do not examine the same arcs at the beginning over and over again.
+ */
+public interface PricingStrategy {
+
+	/**
+	 * Returned by {@link #findEnteringArc()} if no arc is eligible.
+	 */
+	int NONE = -1;
+
+	/**
+	 * Chooses an entering arc.
+	 * @return The index of the entering arc or {@link #NONE} if no arc is eligible.
+	 */
+	int findEnteringArc();
+
+	/**
+	 * Returns the number of reduced costs computed so far.
+	 * @return The number of priced arcs.
+	 */
+	long getNumberOfPricedArcs();
+
+}
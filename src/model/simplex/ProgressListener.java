@@ -0,0 +1,17 @@
+package model.simplex;
+
+/**
+ * A progress listener is informed about a running solve of the {@link ArrayNetworkSimplex}
+ * every {@link SolveOptions#getProgressInterval()} pivots.
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called on the solving thread between two pivots.
+	 * @param pivots The number of pivots so far.
+	 * @param objective The cost of the current flow on the arcs of the network.
+	 * @param eligibleArcs The number of arcs eligible to enter the tree.
+	 */
+	void progress(long pivots, long objective, int eligibleArcs);
+
+}
@@ -0,0 +1,127 @@
+package model.simplex;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The SolveOptions class bounds a solve of the {@link ArrayNetworkSimplex}
+ * by a deadline, a time limit and a maximal number of pivots,
+ * and holds a cancellation token and a progress listener.
+ * A solve stopped by a limit reports {@link SolveStatus#TIME_LIMIT},
+ * a cancelled solve {@link SolveStatus#CANCELLED}.
+ * The limits and the token are checked every {@link #CHECK_INTERVAL} pivots.
+ */
+public class SolveOptions {
+
+	/**
+	 * Number of pivots between two checks of the deadline and the cancellation token
+	 */
+	public static final int CHECK_INTERVAL = 64;
+
+	/**
+	 * Default number of pivots between two calls of the progress listener
+	 */
+	public static final int DEFAULT_PROGRESS_INTERVAL = 10000;
+
+	private Instant deadline;
+
+	private Duration timeLimit;
+
+	private long maxPivots = Long.MAX_VALUE;
+
+	private CancellationToken cancellationToken;
+
+	private ProgressListener progressListener;
+
+	private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+	public Instant getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Sets the wall clock time at which a solve stops.
+	 * @param deadline The deadline or <code>null</code> for no deadline.
+	 */
+	public void setDeadline(Instant deadline) {
+		this.deadline = deadline;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets the time after which a solve stops, counted from the start of every solve.
+	 * @param timeLimit The time limit or <code>null</code> for no limit.
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	public long getMaxPivots() {
+		return maxPivots;
+	}
+
+	public void setMaxPivots(long maxPivots) {
+		this.maxPivots = maxPivots;
+	}
+
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	public ProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	public int getProgressInterval() {
+		return progressInterval;
+	}
+
+	/**
+	 * Sets the number of pivots between two calls of the progress listener.
+	 * @param progressInterval The positive number of pivots.
+	 */
+	public void setProgressInterval(int progressInterval) {
+		if (progressInterval <= 0) {
+			throw new IllegalArgumentException("The progress interval has to be positive: " + progressInterval);
+		}
+		this.progressInterval = progressInterval;
+	}
+
+	/**
+	 * Computes the time a solve starting now may run.
+	 * @return The time in nanoseconds or {@link Long#MAX_VALUE} if it is not bounded.
+	 */
+	long computeTimeBudget() {
+		long budget = Long.MAX_VALUE;
+		if (timeLimit != null) {
+			budget = nanos(timeLimit);
+		}
+		if (deadline != null) {
+			budget = Math.min(budget, nanos(Duration.between(Instant.now(), deadline)));
+		}
+		return budget;
+	}
+
+	private static long nanos(Duration duration) {
+		if (duration.isNegative()) {
+			return 0L;
+		}
+		try {
+			return duration.toNanos();
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+}
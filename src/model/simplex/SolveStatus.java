@@ -0,0 +1,33 @@
+package model.simplex;
+
+/**
+ * The status of a solve of the {@link ArrayNetworkSimplex}.
+ */
+public enum SolveStatus {
+
+	/**
+	 * The flow is optimal.
+	 */
+	OPTIMAL,
+
+	/**
+	 * No feasible flow exists.
+	 */
+	INFEASIBLE,
+
+	/**
+	 * A cycle of negative cost and infinite capacity exists.
+	 */
+	UNBOUNDED,
+
+	/**
+	 * The solve stopped at the deadline or after the maximal number of pivots.
+	 */
+	TIME_LIMIT,
+
+	/**
+	 * The solve stopped because its cancellation token was cancelled.
+	 */
+	CANCELLED;
+
+}
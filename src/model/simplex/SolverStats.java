@@ -0,0 +1,178 @@
+package model.simplex;
+
+/**
+ * The SolverStats class holds the status, the counters and the timings of a solve of the {@link ArrayNetworkSimplex}.
+ * The pivots and the priced arcs are always counted. The size of the subtrees T2,
+ * the timings of the phases and the allocated bytes are only measured
+ * if the solver collects stats, see {@link ArrayNetworkSimplex#setCollectingStats(boolean)},
+ * otherwise they are zero.
+ */
+public class SolverStats {
+
+	/**
+	 * The measured phases
+	 */
+	static final int EXTEND = 0;
+	static final int INITIAL_FLOW = 1;
+	static final int PRICING = 2;
+	static final int CYCLE = 3;
+	static final int TREE_UPDATE = 4;
+	static final int POTENTIALS = 5;
+
+	long numberOfPivots;
+
+	long numberOfDegeneratePivots;
+
+	long numberOfPricedArcs;
+
+	/**
+	 * Number of pivots which changed the tree and sum of the sizes of the moved subtrees T2
+	 */
+	long numberOfTreeUpdates;
+
+	long sizeOfSubtrees;
+
+	long extendTime;
+
+	long initialFlowTime;
+
+	long pricingTime;
+
+	long cycleTime;
+
+	long treeUpdateTime;
+
+	long potentialsTime;
+
+	long allocatedBytes;
+
+	SolveStatus status;
+
+	void addTime(int phase, long nanos) {
+		switch (phase) {
+		case EXTEND:
+			extendTime += nanos;
+			break;
+		case INITIAL_FLOW:
+			initialFlowTime += nanos;
+			break;
+		case PRICING:
+			pricingTime += nanos;
+			break;
+		case CYCLE:
+			cycleTime += nanos;
+			break;
+		case TREE_UPDATE:
+			treeUpdateTime += nanos;
+			break;
+		default:
+			potentialsTime += nanos;
+		}
+	}
+
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public long getNumberOfPivots() {
+		return numberOfPivots;
+	}
+
+	public long getNumberOfDegeneratePivots() {
+		return numberOfDegeneratePivots;
+	}
+
+	/**
+	 * Returns the number of reduced costs computed by the pricing.
+	 * @return The number of priced arcs.
+	 */
+	public long getNumberOfPricedArcs() {
+		return numberOfPricedArcs;
+	}
+
+	/**
+	 * Returns the average number of vertices in the subtree T2,
+	 * which is moved in a pivot changing the tree.
+	 * @return The average size of T2.
+	 */
+	public double getAverageSizeOfT2() {
+		return numberOfTreeUpdates == 0 ? 0.0 : (double) sizeOfSubtrees / numberOfTreeUpdates;
+	}
+
+	/**
+	 * Returns the time spent on adding the artificial arcs and shifting the lower bounds.
+	 * @return The time in nanoseconds.
+	 */
+	public long getExtendTime() {
+		return extendTime;
+	}
+
+	/**
+	 * Returns the time spent on the initial tree and its flows.
+	 * @return The time in nanoseconds.
+	 */
+	public long getInitialFlowTime() {
+		return initialFlowTime;
+	}
+
+	/**
+	 * Returns the time spent on choosing the entering arcs.
+	 * @return The time in nanoseconds.
+	 */
+	public long getPricingTime() {
+		return pricingTime;
+	}
+
+	/**
+	 * Returns the time spent on finding the cycles, the leaving arcs and updating the flows.
+	 * @return The time in nanoseconds.
+	 */
+	public long getCycleTime() {
+		return cycleTime;
+	}
+
+	/**
+	 * Returns the time spent on updating the tree indices.
+	 * @return The time in nanoseconds.
+	 */
+	public long getTreeUpdateTime() {
+		return treeUpdateTime;
+	}
+
+	/**
+	 * Returns the time spent on computing and updating the vertex potentials.
+	 * @return The time in nanoseconds.
+	 */
+	public long getPotentialsTime() {
+		return potentialsTime;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the solving thread during the solve,
+	 * or -1 if the virtual machine does not measure it.
+	 * @return The allocated bytes.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "Status: " + status
+				+ ", pivots: " + numberOfPivots + " (" + numberOfDegeneratePivots + " degenerate)"
+				+ ", priced arcs: " + numberOfPricedArcs
+				+ ", average size of T2: " + String.format("%.1f", getAverageSizeOfT2())
+				+ "\nTimes in ms: extend " + millis(extendTime)
+				+ ", initial flow " + millis(initialFlowTime)
+				+ ", pricing " + millis(pricingTime)
+				+ ", cycle " + millis(cycleTime)
+				+ ", tree update " + millis(treeUpdateTime)
+				+ ", potentials " + millis(potentialsTime)
+				+ "\nAllocated bytes: " + allocatedBytes;
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.1f", nanos / 1e6);
+	}
+
+}
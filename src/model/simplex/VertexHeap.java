@@ -0,0 +1,105 @@
+package model.simplex;
+
+import java.util.Arrays;
+
+/**
+ * The VertexHeap class is a binary heap of vertex indices ordered by a key,
+ * which supports decreasing the key of a vertex in the heap.
+ */
+class VertexHeap {
+
+	private final int[] heap;
+
+	/**
+	 * Position of every vertex in the heap, -1 if it is not in the heap
+	 */
+	private final int[] position;
+
+	private final long[] key;
+
+	private int size;
+
+	VertexHeap(int numberOfVertices) {
+		heap = new int[numberOfVertices];
+		position = new int[numberOfVertices];
+		key = new long[numberOfVertices];
+		Arrays.fill(position, -1);
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	boolean contains(int v) {
+		return position[v] != -1;
+	}
+
+	long getKey(int v) {
+		return key[v];
+	}
+
+	/**
+	 * Inserts a vertex or decreases its key if it is in the heap already.
+	 * @param v The vertex.
+	 * @param k The new key, not larger than the current key.
+	 */
+	void insertOrDecrease(int v, long k) {
+		key[v] = k;
+		if (position[v] == -1) {
+			position[v] = size;
+			heap[size++] = v;
+		}
+		siftUp(position[v]);
+	}
+
+	int removeMin() {
+		int min = heap[0];
+		position[min] = -1;
+		int last = heap[--size];
+		if (size > 0) {
+			heap[0] = last;
+			position[last] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		long k = key[v];
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			int w = heap[parent];
+			if (key[w] <= k) {
+				break;
+			}
+			heap[i] = w;
+			position[w] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		long k = key[v];
+		int half = size >> 1;
+		while (i < half) {
+			int child = 2*i + 1;
+			if (child + 1 < size && key[heap[child+1]] < key[heap[child]]) {
+				child++;
+			}
+			int w = heap[child];
+			if (k <= key[w]) {
+				break;
+			}
+			heap[i] = w;
+			position[w] = i;
+			i = child;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+
+}
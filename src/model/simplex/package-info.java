@@ -0,0 +1,5 @@
+/**
+ * Provides the network simplex method working on a network
+ * copied into primitive arrays.
+ */
+package model.simplex;